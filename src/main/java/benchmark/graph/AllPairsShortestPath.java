@@ -4,9 +4,22 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 final class AllPairsShortestPath {
 
+    /**
+     * 64 x 64 ints tile is 16 KB, so three tiles used by a single tile update fit into L1/L2 cache.
+     */
+    static final int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * Infinity for tiled version, sum of two infinities doesn't overflow int, so inner loop
+     * can use plain 'Math.min' without any checks.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
     private AllPairsShortestPath() {
         throw new AssertionError("Can't instantiate utility only class");
     }
@@ -44,6 +57,239 @@ final class AllPairsShortestPath {
         return allPaths[vertexToIndexMap.get(src)][vertexToIndexMap.get(dest)];
     }
 
+    /**
+     * Floyd-Warshall over CSR graph using flat row-major 'int[V * V]' matrix instead of 'int[][]',
+     * so the inner loop scans two contiguous rows.
+     * <p>
+     * time: O(V^3)
+     * space: O(V^2)
+     */
+    static int calculateShortestPath(int src, int dest, CompactGraph graph) {
+
+        final int vertexesCount = graph.vertexesCount();
+
+        int[] allPaths = initialPathsArray(graph);
+
+        for (int m = 0; m < vertexesCount; ++m) {
+
+            final int mRow = m * vertexesCount;
+
+            for (int i = 0; i < vertexesCount; ++i) {
+
+                final int iRow = i * vertexesCount;
+                final int pathToM = allPaths[iRow + m];
+
+                if (pathToM == Integer.MAX_VALUE) {
+                    continue;
+                }
+
+                for (int j = 0; j < vertexesCount; ++j) {
+
+                    final int pathFromM = allPaths[mRow + j];
+
+                    if (pathFromM != Integer.MAX_VALUE && pathToM + pathFromM < allPaths[iRow + j]) {
+                        allPaths[iRow + j] = pathToM + pathFromM;
+                    }
+                }
+            }
+        }
+
+        return allPaths[src * vertexesCount + dest];
+    }
+
+    /**
+     * Blocked (tiled) Floyd-Warshall over flat int[] matrix padded to a multiple of 'tileSize'.
+     * For every k-th diagonal tile runs three phases:
+     * 1. dependent phase: update diagonal tile (k, k) itself;
+     * 2. partially dependent phase: update tiles in row k and column k, they only depend on tile (k, k);
+     * 3. independent phase: update all the rest tiles, they only depend on row k and column k tiles.
+     * Tiles within phases 2 and 3 are independent of each other and processed in parallel using 'pool'.
+     * <p>
+     * time: O(V^3 / P), P - pool parallelism
+     * space: O(V^2)
+     */
+    static DistanceMatrix calculateAllPaths(CompactGraph graph, ForkJoinPool pool, int tileSize) {
+        assert tileSize > 0;
+
+        final int tilesCount = (graph.vertexesCount() + tileSize - 1) / tileSize;
+        final int stride = tilesCount * tileSize;
+
+        int[] allPaths = initialPathsArray(graph, stride);
+
+        for (int k = 0; k < tilesCount; ++k) {
+
+            // phase 1
+            updateTile(allPaths, stride, tileSize, k, k, k);
+
+            // phase 2
+            pool.invoke(new RowAndColumnTilesUpdate(allPaths, stride, tileSize, tilesCount, k, 0, 2 * tilesCount));
+
+            // phase 3
+            pool.invoke(new RestTilesUpdate(allPaths, stride, tileSize, tilesCount, k, 0, tilesCount * tilesCount));
+        }
+
+        return new DistanceMatrix(graph, allPaths, stride, INFINITY);
+    }
+
+    /**
+     * Relax tile (row, col) through all vertexes of tile k. Loop order k -> i -> j, so the innermost loop
+     * scans two contiguous rows and is friendly for auto-vectorization.
+     */
+    private static void updateTile(int[] allPaths, int stride, int tileSize, int rowTile, int colTile,
+                                   int kTile) {
+
+        final int rowFrom = rowTile * tileSize;
+        final int colFrom = colTile * tileSize;
+        final int colTo = colFrom + tileSize;
+        final int kFrom = kTile * tileSize;
+
+        for (int m = kFrom; m < kFrom + tileSize; ++m) {
+
+            final int mRow = m * stride;
+
+            for (int i = rowFrom; i < rowFrom + tileSize; ++i) {
+
+                final int iRow = i * stride;
+                final int pathToM = allPaths[iRow + m];
+
+                if (pathToM >= INFINITY) {
+                    continue;
+                }
+
+                for (int j = colFrom; j < colTo; ++j) {
+                    allPaths[iRow + j] = Math.min(allPaths[iRow + j], pathToM + allPaths[mRow + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Phase 2 tiles: indexes [0, tilesCount) are row k tiles, [tilesCount, 2 * tilesCount) are column k tiles.
+     */
+    private static final class RowAndColumnTilesUpdate extends RecursiveAction {
+
+        final int[] allPaths;
+        final int stride;
+        final int tileSize;
+        final int tilesCount;
+        final int k;
+        final int from;
+        final int to;
+
+        RowAndColumnTilesUpdate(int[] allPaths, int stride, int tileSize, int tilesCount, int k, int from,
+                                int to) {
+            this.allPaths = allPaths;
+            this.stride = stride;
+            this.tileSize = tileSize;
+            this.tilesCount = tilesCount;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                final boolean isRowTile = from < tilesCount;
+                final int other = isRowTile ? from : from - tilesCount;
+
+                if (other != k) {
+                    if (isRowTile) {
+                        updateTile(allPaths, stride, tileSize, k, other, k);
+                    }
+                    else {
+                        updateTile(allPaths, stride, tileSize, other, k, k);
+                    }
+                }
+                return;
+            }
+
+            final int middle = from + (to - from) / 2;
+
+            invokeAll(new RowAndColumnTilesUpdate(allPaths, stride, tileSize, tilesCount, k, from, middle),
+                      new RowAndColumnTilesUpdate(allPaths, stride, tileSize, tilesCount, k, middle, to));
+        }
+    }
+
+    /**
+     * Phase 3 tiles: index 'i * tilesCount + j' is tile (i, j), all tiles from row k and column k are skipped.
+     */
+    private static final class RestTilesUpdate extends RecursiveAction {
+
+        final int[] allPaths;
+        final int stride;
+        final int tileSize;
+        final int tilesCount;
+        final int k;
+        final int from;
+        final int to;
+
+        RestTilesUpdate(int[] allPaths, int stride, int tileSize, int tilesCount, int k, int from, int to) {
+            this.allPaths = allPaths;
+            this.stride = stride;
+            this.tileSize = tileSize;
+            this.tilesCount = tilesCount;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                final int row = from / tilesCount;
+                final int col = from % tilesCount;
+
+                if (row != k && col != k) {
+                    updateTile(allPaths, stride, tileSize, row, col, k);
+                }
+                return;
+            }
+
+            final int middle = from + (to - from) / 2;
+
+            invokeAll(new RestTilesUpdate(allPaths, stride, tileSize, tilesCount, k, from, middle),
+                      new RestTilesUpdate(allPaths, stride, tileSize, tilesCount, k, middle, to));
+        }
+    }
+
+    private static int[] initialPathsArray(CompactGraph graph, int stride) {
+
+        int[] allPaths = new int[DistanceMatrix.cellsCount(stride)];
+        Arrays.fill(allPaths, INFINITY);
+
+        for (int src = 0; src < stride; ++src) {
+            allPaths[src * stride + src] = 0;
+        }
+
+        for (int src = 0; src < graph.vertexesCount(); ++src) {
+            for (int i = graph.offsets[src], last = graph.offsets[src + 1]; i < last; ++i) {
+                int index = src * stride + graph.targets[i];
+                allPaths[index] = Math.min(allPaths[index], graph.weights[i]);
+            }
+        }
+
+        return allPaths;
+    }
+
+    private static int[] initialPathsArray(CompactGraph graph) {
+
+        final int vertexesCount = graph.vertexesCount();
+
+        int[] allPaths = new int[DistanceMatrix.cellsCount(vertexesCount)];
+        Arrays.fill(allPaths, Integer.MAX_VALUE);
+
+        for (int src = 0; src < vertexesCount; ++src) {
+            allPaths[src * vertexesCount + src] = 0;
+
+            for (int i = graph.offsets[src], last = graph.offsets[src + 1]; i < last; ++i) {
+                allPaths[src * vertexesCount + graph.targets[i]] = graph.weights[i];
+            }
+        }
+
+        return allPaths;
+    }
+
     private static int[][] initialPathsArray(Map<String, List<EdgeWithWeight>> adjList,
                                              Map<String, Integer> vertexToIndexMap) {
         int[][] allPaths = new int[vertexToIndexMap.size()][vertexToIndexMap.size()];
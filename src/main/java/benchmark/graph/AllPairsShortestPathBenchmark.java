@@ -0,0 +1,64 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for all pairs shortest paths: tiled parallel Floyd-Warshall, which is O(V^3) for any density,
+ * vs Johnson's algorithm (parallel Dijkstra from every source), which is O(V * E * lgV).
+ * Both use the same fork-join pool with all available processors.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AllPairsShortestPathBenchmark {
+
+    @Param({"500", "1000", "2000", "4000"})
+    public int vertexesCount;
+
+    @Param({"2.0", "8.0", "32.0"})
+    public double averageDegree;
+
+    private CompactGraph graph;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = DagGenerator.generateCompact(vertexesCount, averageDegree,
+                DagGenerator.WeightDistribution.TRIANGULAR, 42L);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public DistanceMatrix floydWarshallTiled() {
+        return graph.allPairsShortestPaths(pool);
+    }
+
+    @Benchmark
+    public DistanceMatrix johnson() {
+        return graph.allPairsShortestPathsJohnson(pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AllPairsShortestPathBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
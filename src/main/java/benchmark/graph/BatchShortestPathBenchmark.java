@@ -0,0 +1,78 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for a batch of shortest path queries in DAG: one topological sorting call per query vs
+ * batched queries over cached topological order with a single relaxation sweep per distinct source.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+public class BatchShortestPathBenchmark {
+
+    private static final int GRAPH_VERTEXES_COUNT = 1000;
+
+    private static final Random RAND = ThreadLocalRandom.current();
+
+    @Param({"1000", "100000"})
+    public int queriesCount;
+
+    private DirectAcyclicGraph graph;
+    private String[] srcs;
+    private String[] dests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] labels = ShortestPathInGraphBenchmark.generateVertexesLabels(GRAPH_VERTEXES_COUNT);
+        graph = DagGenerator.generate(labels);
+
+        srcs = new String[queriesCount];
+        dests = new String[queriesCount];
+
+        for (int i = 0; i < queriesCount; ++i) {
+            int src = RAND.nextInt(labels.length - 1);
+
+            srcs[i] = labels[src];
+            dests[i] = labels[src + 1 + RAND.nextInt(labels.length - src - 1)];
+        }
+
+        // compile graph and cache topological order before measurement
+        graph.shortestPaths(srcs, dests);
+    }
+
+    @Benchmark
+    public void singleCall(Blackhole bh) {
+        CompactGraph compactGraph = graph.compile();
+
+        for (int i = 0; i < srcs.length; ++i) {
+            bh.consume(compactGraph.shortestPath(srcs[i], dests[i]));
+        }
+    }
+
+    @Benchmark
+    public int[] batched() {
+        return graph.shortestPaths(srcs, dests);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BatchShortestPathBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
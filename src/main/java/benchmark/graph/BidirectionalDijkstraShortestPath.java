@@ -0,0 +1,103 @@
+package benchmark.graph;
+
+final class BidirectionalDijkstraShortestPath {
+
+    private BidirectionalDijkstraShortestPath() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    /**
+     * Bidirectional Dijkstra over CSR graph. Forward search runs from 'src' over outgoing edges, backward search
+     * runs from 'dest' over reverse adjacency index, searches alternate one settled vertex at a time.
+     * Every time an edge reaches a vertex already seen by the opposite search, we have a candidate path.
+     * Search stops as soon as 'forward min key + backward min key >= best path found so far'.
+     * <p>
+     * For point-to-point queries both searches explore balls of about half the radius, so usually
+     * much fewer vertexes are settled compared to unidirectional Dijkstra.
+     * Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     * <p>
+     * time: O((V+E)*lgV)
+     * space: O(V + E), reverse index + preallocated heaps
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph, IndexedDaryMinHeap forwardHeap,
+                            IndexedDaryMinHeap backwardHeap) {
+        assert forwardHeap.capacity() >= graph.vertexesCount();
+        assert backwardHeap.capacity() >= graph.vertexesCount();
+
+        if (src == dest) {
+            return 0;
+        }
+
+        final CompactGraph reversed = graph.reverse();
+
+        forwardHeap.clear();
+        backwardHeap.clear();
+
+        forwardHeap.add(src, 0);
+        backwardHeap.add(dest, 0);
+
+        int bestPath = Integer.MAX_VALUE;
+        boolean forward = true;
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+
+            // standard termination rule, no path through unsettled vertexes can be shorter
+            if ((long) forwardHeap.peekKey() + backwardHeap.peekKey() >= bestPath) {
+                break;
+            }
+
+            if (forward) {
+                bestPath = settleNext(graph, forwardHeap, backwardHeap, bestPath);
+            }
+            else {
+                bestPath = settleNext(reversed, backwardHeap, forwardHeap, bestPath);
+            }
+
+            forward = !forward;
+        }
+
+        return bestPath;
+    }
+
+    /**
+     * Poll one vertex from 'heap', relax all its edges in 'graph' and return updated best path.
+     */
+    private static int settleNext(CompactGraph graph, IndexedDaryMinHeap heap, IndexedDaryMinHeap otherHeap,
+                                  int bestPath) {
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        final int curVertex = heap.poll();
+        final int curWeight = heap.key(curVertex);
+
+        int res = bestPath;
+
+        for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+            final int otherVertex = targets[i];
+            final int newWeight = curWeight + weights[i];
+
+            if (heap.contains(otherVertex)) {
+                if (newWeight < heap.key(otherVertex)) {
+                    heap.decreaseKey(otherVertex, newWeight);
+                }
+            }
+            else if (!heap.isPolled(otherVertex)) {
+                heap.add(otherVertex, newWeight);
+            }
+
+            // path 'src -> curVertex -> otherVertex -> dest' (or reversed one for backward search)
+            if (otherHeap.isSeen(otherVertex)) {
+                int candidate = newWeight + otherHeap.key(otherVertex);
+
+                if (candidate < res) {
+                    res = candidate;
+                }
+            }
+        }
+
+        return res;
+    }
+
+}
@@ -0,0 +1,585 @@
+package benchmark.graph;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Frozen, int-indexed compressed sparse row (CSR) representation of a DAG.
+ * <p>
+ * Outgoing edges of vertex 'v' are stored in 'targets[offsets[v]] .. targets[offsets[v + 1] - 1]' with
+ * matching 'weights', so traversals work over plain int arrays without hashing String labels or chasing
+ * list nodes. Labels are only used at the API boundary to map to/from vertex ids.
+ * Large generated graphs use implicit numeric labels "0", "1", ..., "V-1" without any label dictionary.
+ * <p>
+ * space: O(V + E) ints plus label dictionary
+ */
+final class CompactGraph {
+
+    static final int NO_VERTEX = -1;
+
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+
+    private final int maxWeight;
+
+    // both null for graphs with implicit numeric labels
+    private final String[] labels;
+    private final ObjectIntHashMap<String> labelToId;
+
+    // reverse adjacency index (graph with all edges reversed) built lazily, all fields are final, so racy
+    // initialization is safe, in the worst case it will be built more than once
+    private CompactGraph reversed;
+
+    // cached topological order, built lazily (racy initialization is safe here as well)
+    private TopologicalSortingShortestPath.TopologicalOrder topologicalOrder;
+
+    // contraction hierarchy, built lazily on the first request (racy initialization is safe here as well)
+    private ContractionHierarchy contractionHierarchy;
+
+    // landmarks for A* queries, built lazily for the last requested landmarks count (racy initialization is safe)
+    private LandmarkShortestPath landmarks;
+
+    private CompactGraph(String[] labels, ObjectIntHashMap<String> labelToId, int[] offsets, int[] targets,
+                         int[] weights) {
+        this.labels = labels;
+        this.labelToId = labelToId;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        int max = 0;
+        for (int weight : weights) {
+            max = Math.max(max, weight);
+        }
+        this.maxWeight = max;
+    }
+
+    /**
+     * Compile adjacency list into CSR form. Vertex ids are assigned in adjacency list iteration order.
+     * <p>
+     * time: O(V + E)
+     * space: O(V + E)
+     */
+    static CompactGraph compile(Map<String, List<EdgeWithWeight>> adjList) {
+
+        final int vertexesCount = adjList.size();
+
+        String[] labels = new String[vertexesCount];
+        ObjectIntHashMap<String> labelToId = new ObjectIntHashMap<>(vertexesCount);
+
+        int[] offsets = new int[vertexesCount + 1];
+
+        int id = 0;
+        for (Map.Entry<String, List<EdgeWithWeight>> entry : adjList.entrySet()) {
+            labels[id] = entry.getKey();
+            labelToId.put(entry.getKey(), id);
+            offsets[id + 1] = offsets[id] + entry.getValue().size();
+            ++id;
+        }
+
+        final int edgesCount = offsets[vertexesCount];
+
+        int[] targets = new int[edgesCount];
+        int[] weights = new int[edgesCount];
+
+        int edgeIndex = 0;
+        for (List<EdgeWithWeight> edges : adjList.values()) {
+            for (EdgeWithWeight singleEdge : edges) {
+                targets[edgeIndex] = labelToId.getIfAbsent(singleEdge.dest, NO_VERTEX);
+                weights[edgeIndex] = singleEdge.weight;
+
+                checkArgument(targets[edgeIndex] != NO_VERTEX, "Edge to unknown vertex detected: '%s'",
+                        singleEdge.dest);
+                ++edgeIndex;
+            }
+        }
+
+        return new CompactGraph(labels, labelToId, offsets, targets, weights);
+    }
+
+    /**
+     * Wrap already built CSR arrays without copying, 'labels' is null for implicit numeric labels.
+     * <p>
+     * time: O(V + E)
+     */
+    static CompactGraph of(String[] labels, int[] offsets, int[] targets, int[] weights) {
+        checkArgument(targets.length == weights.length, "targets and weights have different lengths: %s and %s",
+                targets.length, weights.length);
+        checkArgument(labels == null || labels.length == offsets.length - 1,
+                "labels count %s doesn't match vertexes count %s", labels == null ? 0 : labels.length,
+                offsets.length - 1);
+
+        if (labels == null) {
+            return new CompactGraph(null, null, offsets, targets, weights);
+        }
+
+        ObjectIntHashMap<String> labelToId = new ObjectIntHashMap<>(labels.length);
+        for (int id = 0; id < labels.length; ++id) {
+            labelToId.put(labels[id], id);
+        }
+
+        return new CompactGraph(labels, labelToId, offsets, targets, weights);
+    }
+
+    /**
+     * Incremental CSR builder, edges can be streamed in any order. When edges arrive already grouped by
+     * source in increasing order (as produced by DagGenerator), 'build' just calculates offsets, otherwise
+     * edges are grouped with a counting sort.
+     * <p>
+     * time: O(V + E)
+     * space: O(V + E)
+     */
+    static final class Builder {
+
+        private final String[] labels;
+        private final int vertexesCount;
+
+        private int[] sources;
+        private int[] targets;
+        private int[] weights;
+
+        private int edgesCount;
+        private boolean sortedBySource = true;
+
+        /**
+         * Builder for graph with implicit numeric labels "0", "1", ..., "vertexesCount - 1".
+         */
+        Builder(int vertexesCount, int expectedEdgesCount) {
+            this(null, vertexesCount, expectedEdgesCount);
+        }
+
+        Builder(String[] labels, int expectedEdgesCount) {
+            this(labels, labels.length, expectedEdgesCount);
+        }
+
+        private Builder(String[] labels, int vertexesCount, int expectedEdgesCount) {
+            checkArgument(vertexesCount >= 0, "negative vertexes count: %s", vertexesCount);
+            checkArgument(expectedEdgesCount >= 0, "negative expected edges count: %s", expectedEdgesCount);
+
+            this.labels = labels;
+            this.vertexesCount = vertexesCount;
+            this.sources = new int[Math.max(expectedEdgesCount, 16)];
+            this.targets = new int[sources.length];
+            this.weights = new int[sources.length];
+        }
+
+        Builder addEdge(int src, int dest, int weight) {
+            assert src >= 0 && src < vertexesCount : "'src' out of bound";
+            assert dest >= 0 && dest < vertexesCount : "'dest' out of bound";
+
+            if (edgesCount == sources.length) {
+                int newCapacity = sources.length + (sources.length >> 1);
+                sources = Arrays.copyOf(sources, newCapacity);
+                targets = Arrays.copyOf(targets, newCapacity);
+                weights = Arrays.copyOf(weights, newCapacity);
+            }
+
+            if (edgesCount != 0 && src < sources[edgesCount - 1]) {
+                sortedBySource = false;
+            }
+
+            sources[edgesCount] = src;
+            targets[edgesCount] = dest;
+            weights[edgesCount] = weight;
+            ++edgesCount;
+
+            return this;
+        }
+
+        CompactGraph build() {
+
+            int[] offsets = new int[vertexesCount + 1];
+
+            for (int i = 0; i < edgesCount; ++i) {
+                ++offsets[sources[i] + 1];
+            }
+
+            for (int i = 0; i < vertexesCount; ++i) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            int[] resTargets;
+            int[] resWeights;
+
+            if (sortedBySource) {
+                resTargets = edgesCount == targets.length ? targets : Arrays.copyOf(targets, edgesCount);
+                resWeights = edgesCount == weights.length ? weights : Arrays.copyOf(weights, edgesCount);
+            }
+            else {
+                resTargets = new int[edgesCount];
+                resWeights = new int[edgesCount];
+
+                int[] next = Arrays.copyOf(offsets, vertexesCount);
+
+                for (int i = 0; i < edgesCount; ++i) {
+                    int slot = next[sources[i]]++;
+                    resTargets[slot] = targets[i];
+                    resWeights[slot] = weights[i];
+                }
+            }
+
+            sources = null;
+            targets = null;
+            weights = null;
+
+            return CompactGraph.of(labels, offsets, resTargets, resWeights);
+        }
+    }
+
+    /**
+     * Returns graph with the same vertex ids, but with all edges reversed (incoming edges index).
+     * <p>
+     * time: O(V + E)
+     * space: O(V + E)
+     */
+    CompactGraph reverse() {
+        CompactGraph res = reversed;
+
+        if (res == null) {
+            res = buildReversed();
+            reversed = res;
+        }
+
+        return res;
+    }
+
+    private CompactGraph buildReversed() {
+
+        final int vertexesCount = vertexesCount();
+
+        int[] reversedOffsets = new int[vertexesCount + 1];
+
+        for (int target : targets) {
+            ++reversedOffsets[target + 1];
+        }
+
+        for (int i = 0; i < vertexesCount; ++i) {
+            reversedOffsets[i + 1] += reversedOffsets[i];
+        }
+
+        int[] reversedTargets = new int[targets.length];
+        int[] reversedWeights = new int[weights.length];
+
+        int[] next = Arrays.copyOf(reversedOffsets, vertexesCount);
+
+        for (int src = 0; src < vertexesCount; ++src) {
+            for (int i = offsets[src], last = offsets[src + 1]; i < last; ++i) {
+                int slot = next[targets[i]]++;
+                reversedTargets[slot] = src;
+                reversedWeights[slot] = weights[i];
+            }
+        }
+
+        CompactGraph res = new CompactGraph(labels, labelToId, reversedOffsets, reversedTargets, reversedWeights);
+        res.reversed = this;
+        return res;
+    }
+
+    TopologicalSortingShortestPath.TopologicalOrder topologicalOrder() {
+        TopologicalSortingShortestPath.TopologicalOrder res = topologicalOrder;
+
+        if (res == null) {
+            res = TopologicalSortingShortestPath.topologicalOrder(this);
+            topologicalOrder = res;
+        }
+
+        return res;
+    }
+
+    /**
+     * Contraction hierarchy for fast repeated point-to-point queries, preprocessing is done once on the
+     * first call.
+     */
+    ContractionHierarchy contractionHierarchy() {
+        ContractionHierarchy res = contractionHierarchy;
+
+        if (res == null) {
+            res = ContractionHierarchy.build(this);
+            contractionHierarchy = res;
+        }
+
+        return res;
+    }
+
+    /**
+     * Landmarks for A* queries, preprocessing is done on the first call and repeated only when a different
+     * landmarks count is requested.
+     */
+    LandmarkShortestPath landmarks(int landmarksCount) {
+        LandmarkShortestPath res = landmarks;
+
+        if (res == null || res.landmarksCount() != Math.min(landmarksCount, vertexesCount())) {
+            res = LandmarkShortestPath.build(this, landmarksCount);
+            landmarks = res;
+        }
+
+        return res;
+    }
+
+    int vertexesCount() {
+        return offsets.length - 1;
+    }
+
+    int edgesCount() {
+        return targets.length;
+    }
+
+    int maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns vertex id for a label or NO_VERTEX if there is no such vertex.
+     */
+    int id(String label) {
+        if (labelToId == null) {
+            return numericId(label);
+        }
+        return labelToId.getIfAbsent(label, NO_VERTEX);
+    }
+
+    boolean hasImplicitLabels() {
+        return labels == null;
+    }
+
+    String label(int id) {
+        return labels == null ? String.valueOf(id) : labels[id];
+    }
+
+    /**
+     * Parse implicit numeric label without allocations and exceptions, only canonical decimal
+     * representation (no sign, no leading zeros) is accepted.
+     */
+    private int numericId(String label) {
+        final int length = label.length();
+
+        if (length == 0 || length > 10 || (length > 1 && label.charAt(0) == '0')) {
+            return NO_VERTEX;
+        }
+
+        long value = 0L;
+
+        for (int i = 0; i < length; ++i) {
+            int digit = label.charAt(i) - '0';
+
+            if (digit < 0 || digit > 9) {
+                return NO_VERTEX;
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value < vertexesCount() ? (int) value : NO_VERTEX;
+    }
+
+    int shortestPath(String src, String dest) {
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return -1;
+        }
+
+        // topological sorting finds 'dest' only after 'src' was visited
+        if (srcId == destId) {
+            return 0;
+        }
+
+        return TopologicalSortingShortestPath.shortestPath(srcId, destId, this);
+    }
+
+    /**
+     * Answer a batch of (srcs[i], dests[i]) queries using cached topological order, see
+     * TopologicalSortingShortestPath. Result for a pair with unknown vertex is -1 and for unreachable
+     * pair is Integer.MAX_VALUE.
+     */
+    int[] shortestPaths(String[] srcs, String[] dests) {
+        checkArgument(srcs.length == dests.length, "srcs and dests have different lengths: %s and %s",
+                srcs.length, dests.length);
+
+        int[] srcIds = new int[srcs.length];
+        int[] destIds = new int[dests.length];
+
+        // unknown vertexes replaced by vertex 0 and fixed after the batch is calculated
+        boolean hasUnknown = false;
+
+        for (int i = 0; i < srcs.length; ++i) {
+            srcIds[i] = id(srcs[i]);
+            destIds[i] = id(dests[i]);
+
+            if (srcIds[i] == NO_VERTEX || destIds[i] == NO_VERTEX) {
+                hasUnknown = true;
+                srcIds[i] = 0;
+                destIds[i] = 0;
+            }
+        }
+
+        int[] res = TopologicalSortingShortestPath.shortestPaths(srcIds, destIds, this, topologicalOrder());
+
+        if (hasUnknown) {
+            for (int i = 0; i < srcs.length; ++i) {
+                if (id(srcs[i]) == NO_VERTEX || id(dests[i]) == NO_VERTEX) {
+                    res[i] = -1;
+                }
+            }
+        }
+
+        return res;
+    }
+
+    int shortestPathDijkstra(String src, String dest) {
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return -1;
+        }
+
+        return DijkstraShortestPath.shortestPath(srcId, destId, this);
+    }
+
+    /**
+     * Dijkstra with caller selected indexed priority queue: IndexedDaryMinHeap, DialBucketQueue or RadixHeap.
+     * Queue should have capacity of at least 'vertexesCount()' and can be reused between calls
+     * (but not shared between threads).
+     */
+    int shortestPathDijkstra(String src, String dest, VertexPriorityQueue heap) {
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return -1;
+        }
+
+        return DijkstraShortestPath.shortestPath(srcId, destId, this, heap);
+    }
+
+    int shortestPathBidirectionalDijkstra(String src, String dest) {
+        return shortestPathBidirectionalDijkstra(src, dest,
+                new IndexedDaryMinHeap(2, vertexesCount()), new IndexedDaryMinHeap(2, vertexesCount()));
+    }
+
+    /**
+     * Bidirectional Dijkstra, heaps can be reused between calls (but not shared between threads).
+     */
+    int shortestPathBidirectionalDijkstra(String src, String dest, IndexedDaryMinHeap forwardHeap,
+                                          IndexedDaryMinHeap backwardHeap) {
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return -1;
+        }
+
+        return BidirectionalDijkstraShortestPath.shortestPath(srcId, destId, this, forwardHeap, backwardHeap);
+    }
+
+    /**
+     * Shortest path with vertexes using topological sorting. 'predecessors' is a scratch buffer with at least
+     * 'vertexesCount()' elements, it can be reused between calls, but the returned route is only valid until
+     * the next call with the same buffer (see Route).
+     */
+    Route shortestPathRoute(String src, String dest, int[] predecessors) {
+        checkArgument(predecessors.length >= vertexesCount(), "predecessors buffer is too small: %s",
+                predecessors.length);
+
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return Route.unknownVertex();
+        }
+
+        // single vertex route, predecessors aren't read
+        if (srcId == destId) {
+            return new Route(this, predecessors, srcId, destId, 0);
+        }
+
+        int distance = TopologicalSortingShortestPath.shortestPath(srcId, destId, this, predecessors);
+
+        return new Route(this, predecessors, srcId, destId, distance);
+    }
+
+    /**
+     * Shortest path with vertexes using Dijkstra with caller selected queue, see 'shortestPathRoute' for
+     * 'predecessors' buffer contract.
+     */
+    Route shortestPathRouteDijkstra(String src, String dest, VertexPriorityQueue heap, int[] predecessors) {
+        checkArgument(predecessors.length >= vertexesCount(), "predecessors buffer is too small: %s",
+                predecessors.length);
+
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return Route.unknownVertex();
+        }
+
+        int distance = DijkstraShortestPath.shortestPath(srcId, destId, this, heap, predecessors);
+
+        return new Route(this, predecessors, srcId, destId, distance);
+    }
+
+    /**
+     * Ids of vertexes with 0 in-degree, see GraphConnectivity.
+     */
+    int[] sourceVertexes() {
+        return GraphConnectivity.sourceVertexes(this);
+    }
+
+    /**
+     * Check that all vertexes are reachable from the source vertex, big graphs are traversed with
+     * parallel BFS on 'pool', see GraphConnectivity.
+     */
+    boolean isConnected(ForkJoinPool pool) {
+        return GraphConnectivity.isConnected(this, pool);
+    }
+
+    /**
+     * Calculate distances between all pairs of vertexes once using tiled parallel Floyd-Warshall.
+     */
+    DistanceMatrix allPairsShortestPaths(ForkJoinPool pool) {
+        return AllPairsShortestPath.calculateAllPaths(this, pool, AllPairsShortestPath.DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Calculate distances between all pairs of vertexes using Johnson's algorithm with parallel Dijkstra runs,
+     * better than Floyd-Warshall for sparse graphs.
+     */
+    DistanceMatrix allPairsShortestPathsJohnson(ForkJoinPool pool) {
+        return JohnsonShortestPath.calculateAllPaths(this, pool);
+    }
+
+    /**
+     * Parallel delta-stepping shortest path, see DeltaSteppingShortestPath.
+     */
+    int shortestPathDeltaStepping(String src, String dest, int delta, ForkJoinPool pool) {
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return -1;
+        }
+
+        return DeltaSteppingShortestPath.shortestPath(srcId, destId, this, delta, pool);
+    }
+
+    int shortestPathAllPairs(String src, String dest) {
+        final int srcId = id(src);
+        final int destId = id(dest);
+
+        if (srcId == NO_VERTEX || destId == NO_VERTEX) {
+            return -1;
+        }
+
+        return AllPairsShortestPath.calculateShortestPath(srcId, destId, this);
+    }
+
+}
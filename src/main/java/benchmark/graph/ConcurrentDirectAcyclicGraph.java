@@ -0,0 +1,108 @@
+package benchmark.graph;
+
+import java.util.function.Consumer;
+
+/**
+ * Read-mostly thread safe DAG: any number of query threads and concurrent writers.
+ * <p>
+ * Writers are serialized and modify a private DirectAcyclicGraph, after every modification (or batch of
+ * modifications, see 'update') the graph is compiled into a new CompactGraph and published as an immutable
+ * versioned snapshot through a volatile field (copy-on-write). Readers just read the volatile field and query
+ * the snapshot, so they never block and never see partially applied modifications. CompactGraph lazy caches
+ * (topological order, reverse index) are safe for racy initialization, so all threads share them per snapshot.
+ * <p>
+ * Every write costs O(V + E) for compilation, so this works for read-mostly workloads or when writes are
+ * batched with 'update'.
+ */
+final class ConcurrentDirectAcyclicGraph {
+
+    /**
+     * Immutable graph state after 'version' modifications.
+     */
+    static final class Snapshot {
+
+        final long version;
+        final CompactGraph graph;
+
+        Snapshot(long version, CompactGraph graph) {
+            this.version = version;
+            this.graph = graph;
+        }
+    }
+
+    // guarded by 'this'
+    private final DirectAcyclicGraph graph;
+
+    private volatile Snapshot snapshot;
+
+    ConcurrentDirectAcyclicGraph() {
+        this(new DirectAcyclicGraph());
+    }
+
+    /**
+     * Takes ownership of 'graph', it shouldn't be modified directly after this call.
+     */
+    ConcurrentDirectAcyclicGraph(DirectAcyclicGraph graph) {
+        this.graph = graph;
+        this.snapshot = new Snapshot(0L, graph.compile());
+    }
+
+    /**
+     * Current snapshot, several queries against the same snapshot see the same graph.
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    int shortestPath(String src, String dest) {
+        return snapshot.graph.shortestPath(src, dest);
+    }
+
+    int shortestPathDijkstra(String src, String dest) {
+        return snapshot.graph.shortestPathDijkstra(src, dest);
+    }
+
+    int shortestPathBidirectionalDijkstra(String src, String dest) {
+        return snapshot.graph.shortestPathBidirectionalDijkstra(src, dest);
+    }
+
+    synchronized void addVertex(String vertex) {
+        graph.addVertex(vertex);
+        publish();
+    }
+
+    /**
+     * Throws IllegalArgumentException if the edge creates a cycle, snapshot isn't changed in this case.
+     */
+    synchronized void addEdge(String src, String dest, int weight) {
+        graph.addEdge(src, dest, weight);
+        publish();
+    }
+
+    synchronized boolean removeEdge(String src, String dest) {
+        if (!graph.removeEdge(src, dest)) {
+            return false;
+        }
+
+        publish();
+        return true;
+    }
+
+    /**
+     * Apply several modifications and publish a single snapshot for all of them. If 'modification' throws,
+     * changes applied before the exception are still published.
+     */
+    synchronized void update(Consumer<DirectAcyclicGraph> modification) {
+        try {
+            modification.accept(graph);
+        }
+        finally {
+            publish();
+        }
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(snapshot.version + 1, graph.compile());
+    }
+
+}
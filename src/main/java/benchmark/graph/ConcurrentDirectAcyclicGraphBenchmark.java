@@ -0,0 +1,119 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for snapshot queries over ConcurrentDirectAcyclicGraph: READERS_COUNT query threads with and
+ * without a concurrent writer thread, which constantly replaces a random edge (remove the previously added edge,
+ * add a new one), so every write publishes a new snapshot, but graph size stays the same.
+ * Reader threads count can be changed from command line with '-tg', e.g. '-tg 8,1'.
+ */
+@State(Scope.Group)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
+public class ConcurrentDirectAcyclicGraphBenchmark {
+
+    private static final int GRAPH_VERTEXES_COUNT = 1000;
+
+    private static final int READERS_COUNT = 3;
+
+    private String[] labels;
+    private ConcurrentDirectAcyclicGraph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // DagGenerator adds edges only from lower to higher label index, so labels order is topological
+        labels = ShortestPathInGraphBenchmark.generateVertexesLabels(GRAPH_VERTEXES_COUNT);
+        graph = new ConcurrentDirectAcyclicGraph(DagGenerator.generate(labels));
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(READERS_COUNT)
+    public int readOnlyQuery(ReaderState state) {
+        return state.query(this);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(READERS_COUNT)
+    public int churnQuery(ReaderState state) {
+        return state.query(this);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public long churnWrite(WriterState state) {
+        return state.replaceEdge(this);
+    }
+
+    @State(Scope.Thread)
+    public static class ReaderState {
+
+        final SplittableRandom rand = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+
+        int query(ConcurrentDirectAcyclicGraphBenchmark benchmark) {
+            String[] labels = benchmark.labels;
+
+            int from = rand.nextInt(labels.length - 1);
+            int to = from + 1 + rand.nextInt(labels.length - from - 1);
+
+            return benchmark.graph.shortestPathDijkstra(labels[from], labels[to]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WriterState {
+
+        final SplittableRandom rand = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+
+        String lastSrc;
+        String lastDest;
+
+        long replaceEdge(ConcurrentDirectAcyclicGraphBenchmark benchmark) {
+            String[] labels = benchmark.labels;
+
+            int from = rand.nextInt(labels.length - 1);
+            int to = from + 1 + rand.nextInt(labels.length - from - 1);
+
+            String src = labels[from];
+            String dest = labels[to];
+            int weight = 1 + rand.nextInt(200);
+            String prevSrc = lastSrc;
+            String prevDest = lastDest;
+
+            benchmark.graph.update(graph -> {
+                if (prevSrc != null) {
+                    graph.removeEdge(prevSrc, prevDest);
+                }
+                graph.addEdge(src, dest, weight);
+            });
+
+            lastSrc = src;
+            lastDest = dest;
+
+            return benchmark.graph.snapshot().version;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConcurrentDirectAcyclicGraphBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,416 @@
+package benchmark.graph;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+/**
+ * Contraction hierarchies (Geisberger et al.) for repeated point-to-point queries over a graph that rarely changes.
+ * <p>
+ * Preprocessing contracts vertexes one by one in the order of their importance. Contracting vertex 'v' removes
+ * it from the remaining graph and, for every pair of remaining neighbours 'u -> v -> w', adds a shortcut
+ * 'u -> w' unless a local witness search finds a path from 'u' to 'w' avoiding 'v' that is not longer.
+ * Importance is the edge difference (shortcuts added minus edges removed) plus the number of already
+ * contracted neighbours, priorities are updated lazily: the top vertex is re-evaluated before contraction
+ * and put back into the queue if it's no longer the minimum.
+ * <p>
+ * Query is a bidirectional Dijkstra where forward search only follows edges to more important vertexes and
+ * backward search only follows reversed edges from more important vertexes, so both searches explore only
+ * a small "upward" part of the graph.
+ * <p>
+ * Reference: R. Geisberger, P. Sanders, D. Schultes, D. Delling, "Contraction Hierarchies: Faster and
+ * Simpler Hierarchical Routing in Road Networks".
+ */
+final class ContractionHierarchy {
+
+    /**
+     * Witness search is stopped after this many settled vertexes, so it can miss witnesses and add a
+     * redundant shortcut, but never misses a required one.
+     */
+    private static final int WITNESS_SETTLED_LIMIT = 64;
+
+    /**
+     * Edge difference can be negative, but packed contraction queue needs non-negative keys.
+     */
+    private static final int PRIORITY_BIAS = 1 << 30;
+
+    private final CompactGraph graph;
+
+    // edges 'u -> w' with rank[u] < rank[w], original and shortcuts
+    private final CompactGraph upward;
+
+    // reversed edges 'w -> u' for edges 'u -> w' with rank[u] > rank[w], original and shortcuts
+    private final CompactGraph downward;
+
+    private final int shortcutsCount;
+
+    private ContractionHierarchy(CompactGraph graph, CompactGraph upward, CompactGraph downward,
+                                 int shortcutsCount) {
+        this.graph = graph;
+        this.upward = upward;
+        this.downward = downward;
+        this.shortcutsCount = shortcutsCount;
+    }
+
+    /**
+     * time: O(V * witness searches), in practice depends a lot on graph structure
+     * space: O(V + E + shortcuts)
+     */
+    static ContractionHierarchy build(CompactGraph graph) {
+        return new Contraction(graph).run();
+    }
+
+    int vertexesCount() {
+        return graph.vertexesCount();
+    }
+
+    int shortcutsCount() {
+        return shortcutsCount;
+    }
+
+    int shortestPath(String src, String dest) {
+        return shortestPath(src, dest, new IndexedDaryMinHeap(2, vertexesCount()),
+                new IndexedDaryMinHeap(2, vertexesCount()));
+    }
+
+    /**
+     * Heaps can be reused between calls (but not shared between threads).
+     * Returns -1 if any of vertexes doesn't exist and Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     */
+    int shortestPath(String src, String dest, IndexedDaryMinHeap forwardHeap, IndexedDaryMinHeap backwardHeap) {
+        final int srcId = graph.id(src);
+        final int destId = graph.id(dest);
+
+        if (srcId == CompactGraph.NO_VERTEX || destId == CompactGraph.NO_VERTEX) {
+            return -1;
+        }
+
+        return shortestPath(srcId, destId, forwardHeap, backwardHeap);
+    }
+
+    /**
+     * Bidirectional upward Dijkstra. Unlike plain bidirectional Dijkstra, searches can't stop when they meet:
+     * the shortest path goes through its most important vertex, which both searches reach with exact distances.
+     * So every direction runs until its min key is not smaller than the best path found so far.
+     * <p>
+     * time: O((S + E_S) * lgS), S - vertexes in upward search spaces, E_S - their upward edges
+     * space: O(V), preallocated heaps
+     */
+    int shortestPath(int src, int dest, IndexedDaryMinHeap forwardHeap, IndexedDaryMinHeap backwardHeap) {
+        assert forwardHeap.capacity() >= vertexesCount();
+        assert backwardHeap.capacity() >= vertexesCount();
+
+        if (src == dest) {
+            return 0;
+        }
+
+        forwardHeap.clear();
+        backwardHeap.clear();
+
+        forwardHeap.add(src, 0);
+        backwardHeap.add(dest, 0);
+
+        int bestPath = Integer.MAX_VALUE;
+
+        while (true) {
+            final boolean forward = !forwardHeap.isEmpty() && forwardHeap.peekKey() < bestPath;
+            final boolean backward = !backwardHeap.isEmpty() && backwardHeap.peekKey() < bestPath;
+
+            if (!forward && !backward) {
+                return bestPath;
+            }
+
+            if (forward) {
+                bestPath = settleNext(upward, forwardHeap, backwardHeap, bestPath);
+            }
+
+            if (backward) {
+                bestPath = settleNext(downward, backwardHeap, forwardHeap, bestPath);
+            }
+        }
+    }
+
+    private static int settleNext(CompactGraph graph, IndexedDaryMinHeap heap, IndexedDaryMinHeap otherHeap,
+                                  int bestPath) {
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        final int curVertex = heap.poll();
+        final int curWeight = heap.key(curVertex);
+
+        int res = bestPath;
+
+        // opposite key is exact if already polled there and an upper bound (real path) otherwise
+        if (otherHeap.isSeen(curVertex)) {
+            res = Math.min(res, curWeight + otherHeap.key(curVertex));
+        }
+
+        for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+            final int otherVertex = targets[i];
+            final int newWeight = curWeight + weights[i];
+
+            if (heap.contains(otherVertex)) {
+                if (newWeight < heap.key(otherVertex)) {
+                    heap.decreaseKey(otherVertex, newWeight);
+                }
+            }
+            else if (!heap.isSeen(otherVertex)) {
+                heap.add(otherVertex, newWeight);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Mutable state used during preprocessing only. Remaining graph is kept as adjacency lists of both
+     * outgoing and incoming edges, contracted vertexes are never removed from lists, just skipped.
+     */
+    private static final class Contraction {
+
+        final CompactGraph graph;
+        final int vertexesCount;
+
+        final IntArrayList[] outTargets;
+        final IntArrayList[] outWeights;
+        final IntArrayList[] inSources;
+        final IntArrayList[] inWeights;
+
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+        final int[] rank;
+
+        final IndexedDaryMinHeap witnessHeap;
+
+        int shortcutsCount;
+
+        Contraction(CompactGraph graph) {
+            this.graph = graph;
+            this.vertexesCount = graph.vertexesCount();
+
+            this.outTargets = new IntArrayList[vertexesCount];
+            this.outWeights = new IntArrayList[vertexesCount];
+            this.inSources = new IntArrayList[vertexesCount];
+            this.inWeights = new IntArrayList[vertexesCount];
+
+            CompactGraph reversed = graph.reverse();
+
+            for (int vertex = 0; vertex < vertexesCount; ++vertex) {
+                outTargets[vertex] = IntArrayList.newListWith(slice(graph.targets, graph.offsets, vertex));
+                outWeights[vertex] = IntArrayList.newListWith(slice(graph.weights, graph.offsets, vertex));
+                inSources[vertex] = IntArrayList.newListWith(slice(reversed.targets, reversed.offsets, vertex));
+                inWeights[vertex] = IntArrayList.newListWith(slice(reversed.weights, reversed.offsets, vertex));
+            }
+
+            this.contracted = new boolean[vertexesCount];
+            this.contractedNeighbours = new int[vertexesCount];
+            this.rank = new int[vertexesCount];
+            this.witnessHeap = new IndexedDaryMinHeap(4, vertexesCount);
+        }
+
+        private static int[] slice(int[] arr, int[] offsets, int vertex) {
+            int[] res = new int[offsets[vertex + 1] - offsets[vertex]];
+            System.arraycopy(arr, offsets[vertex], res, 0, res.length);
+            return res;
+        }
+
+        ContractionHierarchy run() {
+            DijkstraShortestPath.PackedMinHeap queue = new DijkstraShortestPath.PackedMinHeap();
+
+            for (int vertex = 0; vertex < vertexesCount; ++vertex) {
+                queue.add(priority(vertex) + PRIORITY_BIAS, vertex);
+            }
+
+            int nextRank = 0;
+
+            while (!queue.isEmpty()) {
+                final int vertex = DijkstraShortestPath.PackedMinHeap.vertex(queue.poll());
+
+                // lazy update: neighbours contracted since the last evaluation could change priority
+                final int priority = priority(vertex) + PRIORITY_BIAS;
+
+                if (!queue.isEmpty() && priority > DijkstraShortestPath.PackedMinHeap.weight(queue.peek())) {
+                    queue.add(priority, vertex);
+                    continue;
+                }
+
+                processShortcuts(vertex, true);
+
+                contracted[vertex] = true;
+                rank[vertex] = nextRank;
+                ++nextRank;
+
+                markNeighbours(outTargets[vertex]);
+                markNeighbours(inSources[vertex]);
+            }
+
+            return buildHierarchy();
+        }
+
+        private void markNeighbours(IntArrayList neighbours) {
+            for (int i = 0; i < neighbours.size(); ++i) {
+                ++contractedNeighbours[neighbours.get(i)];
+            }
+        }
+
+        /**
+         * Edge difference plus number of contracted neighbours, smaller is contracted earlier.
+         */
+        private int priority(int vertex) {
+            final int shortcuts = processShortcuts(vertex, false);
+            final int removedEdges = activeCount(inSources[vertex]) + activeCount(outTargets[vertex]);
+
+            return shortcuts - removedEdges + contractedNeighbours[vertex];
+        }
+
+        private int activeCount(IntArrayList neighbours) {
+            int count = 0;
+            for (int i = 0; i < neighbours.size(); ++i) {
+                if (!contracted[neighbours.get(i)]) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Count shortcuts required to contract 'vertex' and add them to the remaining graph if 'apply' is true.
+         */
+        private int processShortcuts(int vertex, boolean apply) {
+            final IntArrayList sources = inSources[vertex];
+            final IntArrayList sourceWeights = inWeights[vertex];
+            final IntArrayList targets = outTargets[vertex];
+            final IntArrayList targetWeights = outWeights[vertex];
+
+            int maxOutWeight = -1;
+            for (int j = 0; j < targets.size(); ++j) {
+                if (!contracted[targets.get(j)]) {
+                    maxOutWeight = Math.max(maxOutWeight, targetWeights.get(j));
+                }
+            }
+
+            if (maxOutWeight < 0) {
+                return 0;
+            }
+
+            int count = 0;
+
+            for (int i = 0; i < sources.size(); ++i) {
+                final int src = sources.get(i);
+
+                if (contracted[src]) {
+                    continue;
+                }
+
+                final int inWeight = sourceWeights.get(i);
+
+                witnessSearch(src, vertex, inWeight + maxOutWeight);
+
+                for (int j = 0; j < targets.size(); ++j) {
+                    final int dest = targets.get(j);
+
+                    if (contracted[dest]) {
+                        continue;
+                    }
+
+                    final int viaWeight = inWeight + targetWeights.get(j);
+
+                    if (witnessHeap.isSeen(dest) && witnessHeap.key(dest) <= viaWeight) {
+                        continue;
+                    }
+
+                    ++count;
+
+                    if (apply) {
+                        addShortcut(src, dest, viaWeight);
+                    }
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * Bounded Dijkstra from 'src' over remaining graph without 'skipVertex', results are left in 'witnessHeap'.
+         */
+        private void witnessSearch(int src, int skipVertex, int maxWeight) {
+            witnessHeap.clear();
+            witnessHeap.add(src, 0);
+
+            int settledCount = 0;
+
+            while (!witnessHeap.isEmpty() && witnessHeap.peekKey() <= maxWeight &&
+                    settledCount < WITNESS_SETTLED_LIMIT) {
+
+                final int curVertex = witnessHeap.poll();
+                final int curWeight = witnessHeap.key(curVertex);
+                ++settledCount;
+
+                final IntArrayList targets = outTargets[curVertex];
+                final IntArrayList weights = outWeights[curVertex];
+
+                for (int i = 0; i < targets.size(); ++i) {
+                    final int otherVertex = targets.get(i);
+
+                    if (otherVertex == skipVertex || contracted[otherVertex]) {
+                        continue;
+                    }
+
+                    final int newWeight = curWeight + weights.get(i);
+
+                    if (witnessHeap.contains(otherVertex)) {
+                        if (newWeight < witnessHeap.key(otherVertex)) {
+                            witnessHeap.decreaseKey(otherVertex, newWeight);
+                        }
+                    }
+                    else if (!witnessHeap.isSeen(otherVertex)) {
+                        witnessHeap.add(otherVertex, newWeight);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add edge 'src -> dest' or decrease weight of the existing one, so there are no parallel shortcuts.
+         */
+        private void addShortcut(int src, int dest, int weight) {
+            final int outIndex = outTargets[src].indexOf(dest);
+
+            if (outIndex < 0) {
+                outTargets[src].add(dest);
+                outWeights[src].add(weight);
+                inSources[dest].add(src);
+                inWeights[dest].add(weight);
+                ++shortcutsCount;
+            }
+            else if (weight < outWeights[src].get(outIndex)) {
+                outWeights[src].set(outIndex, weight);
+                inWeights[dest].set(inSources[dest].indexOf(src), weight);
+            }
+        }
+
+        private ContractionHierarchy buildHierarchy() {
+            CompactGraph.Builder upward = new CompactGraph.Builder(vertexesCount, graph.edgesCount());
+            CompactGraph.Builder downward = new CompactGraph.Builder(vertexesCount, graph.edgesCount());
+
+            for (int src = 0; src < vertexesCount; ++src) {
+                final IntArrayList targets = outTargets[src];
+                final IntArrayList weights = outWeights[src];
+
+                for (int i = 0; i < targets.size(); ++i) {
+                    final int dest = targets.get(i);
+
+                    if (rank[src] < rank[dest]) {
+                        upward.addEdge(src, dest, weights.get(i));
+                    }
+                    else {
+                        downward.addEdge(dest, src, weights.get(i));
+                    }
+                }
+            }
+
+            return new ContractionHierarchy(graph, upward.build(), downward.build(), shortcutsCount);
+        }
+    }
+
+}
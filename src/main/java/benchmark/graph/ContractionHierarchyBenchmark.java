@@ -0,0 +1,119 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for point-to-point queries with contraction hierarchy vs plain Dijkstra and topological
+ * relaxation over the same CSR graph. Every invocation answers the next query from a fixed set of random pairs.
+ * <p>
+ * Preprocessing time is measured separately by 'preprocessing' in single shot mode, preprocessing time of
+ * the hierarchy used by queries and the number of added shortcuts are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ContractionHierarchyBenchmark {
+
+    private static final int QUERIES_COUNT = 1024;
+
+    @Param({"10000", "100000"})
+    public int vertexesCount;
+
+    @Param({"2.0", "4.0"})
+    public double averageDegree;
+
+    private CompactGraph graph;
+    private ContractionHierarchy contractionHierarchy;
+
+    private IndexedDaryMinHeap forwardHeap;
+    private IndexedDaryMinHeap backwardHeap;
+    private IndexedDaryMinHeap dijkstraHeap;
+
+    private String[] srcs;
+    private String[] dests;
+    private int queryIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = DagGenerator.generateCompact(vertexesCount, averageDegree,
+                DagGenerator.WeightDistribution.TRIANGULAR, 42L);
+
+        long startTime = System.nanoTime();
+        contractionHierarchy = graph.contractionHierarchy();
+        long preprocessingTime = System.nanoTime() - startTime;
+
+        System.out.printf("%nvertexes: %d, edges: %d, preprocessing: %d ms, shortcuts: %d%n",
+                graph.vertexesCount(), graph.edgesCount(), TimeUnit.NANOSECONDS.toMillis(preprocessingTime),
+                contractionHierarchy.shortcutsCount());
+
+        forwardHeap = new IndexedDaryMinHeap(2, vertexesCount);
+        backwardHeap = new IndexedDaryMinHeap(2, vertexesCount);
+        dijkstraHeap = new IndexedDaryMinHeap(4, vertexesCount);
+
+        // vertex ids are in topological order, so 'src < dest' pairs are mostly reachable
+        SplittableRandom rand = new SplittableRandom(42L);
+
+        srcs = new String[QUERIES_COUNT];
+        dests = new String[QUERIES_COUNT];
+
+        for (int i = 0; i < QUERIES_COUNT; ++i) {
+            int src = rand.nextInt(vertexesCount - 1);
+            int dest = src + 1 + rand.nextInt(vertexesCount - src - 1);
+
+            srcs[i] = String.valueOf(src);
+            dests[i] = String.valueOf(dest);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ContractionHierarchy preprocessing() {
+        return ContractionHierarchy.build(graph);
+    }
+
+    @Benchmark
+    public int contractionHierarchyQuery() {
+        int index = nextQuery();
+        return contractionHierarchy.shortestPath(srcs[index], dests[index], forwardHeap, backwardHeap);
+    }
+
+    @Benchmark
+    public int dijkstra() {
+        int index = nextQuery();
+        return graph.shortestPathDijkstra(srcs[index], dests[index], dijkstraHeap);
+    }
+
+    @Benchmark
+    public int topologicalSorting() {
+        int index = nextQuery();
+        return graph.shortestPath(srcs[index], dests[index]);
+    }
+
+    private int nextQuery() {
+        int index = queryIndex;
+        queryIndex = (index + 1) & (QUERIES_COUNT - 1);
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ContractionHierarchyBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
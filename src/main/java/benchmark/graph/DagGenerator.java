@@ -2,8 +2,10 @@ package benchmark.graph;
 
 import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 final class DagGenerator {
@@ -48,4 +50,118 @@ final class DagGenerator {
         return graph;
     }
 
+    /**
+     * Linear time generator for very large DAGs, edges are streamed directly into CSR builder.
+     * <p>
+     * Vertex 'i' gets edges to vertexes 'j > i' and each such pair is selected with the same probability 'p',
+     * chosen so that average out-degree is 'averageDegree' (like 5% probability in 'generate', but scaled
+     * to graph size). Instead of flipping a coin for every pair we sample the gap to the next selected pair
+     * from geometric distribution, so the work is O(V + E) instead of O(V^2).
+     * <p>
+     * Vertex without incoming edges gets an edge from the previous vertex, so every vertex is reachable
+     * from vertex 0 and edges still arrive grouped by source (no sorting needed inside builder).
+     * Vertex ids are in topological order, labels are implicit numbers "0", "1", ..., "vertexesCount - 1".
+     * Same seed always produces the same graph.
+     * <p>
+     * time: O(V + E)
+     * space: O(V + E)
+     */
+    static CompactGraph generateCompact(int vertexesCount, double averageDegree, WeightDistribution weights,
+                                        long seed) {
+        checkArgument(vertexesCount > 0, "vertexesCount should be positive: %s", vertexesCount);
+        checkArgument(averageDegree >= 0.0, "negative averageDegree: %s", averageDegree);
+        checkNotNull(weights, "null 'weights' passed");
+
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        // 'V * (V-1) / 2' possible pairs, 'V * averageDegree' edges expected
+        final double probability = vertexesCount < 2 ? 0.0 :
+                Math.min(1.0, 2.0 * averageDegree / (vertexesCount - 1));
+        final double logOneMinusProbability = Math.log1p(-probability);
+
+        long expectedEdges = (long) (vertexesCount * (averageDegree + 1.0));
+
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertexesCount,
+                (int) Math.min(expectedEdges, Integer.MAX_VALUE - 8));
+
+        long[] hasIncoming = new long[(vertexesCount + 63) >>> 6];
+
+        for (int i = 0; i < vertexesCount; ++i) {
+
+            if (i != 0 && (hasIncoming[i >>> 6] & (1L << i)) == 0) {
+                builder.addEdge(i - 1, i, 1 + rand.nextInt(15));
+            }
+
+            if (probability <= 0.0) {
+                continue;
+            }
+
+            int dest = i;
+
+            while (true) {
+                // skip can saturate to Long.MAX_VALUE for tiny probability, so compare with the remaining range
+                // instead of adding it to 'dest'
+                long skip = geometricSkip(rand, probability, logOneMinusProbability);
+
+                if (skip >= vertexesCount - 1 - dest) {
+                    break;
+                }
+
+                dest += 1 + (int) skip;
+
+                builder.addEdge(i, dest, weights.next(rand));
+                hasIncoming[dest >>> 6] |= 1L << dest;
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Number of failed Bernoulli trials before the first success.
+     */
+    private static long geometricSkip(SplittableRandom rand, double probability, double logOneMinusProbability) {
+        if (probability >= 1.0) {
+            return 0L;
+        }
+
+        // 1.0 - nextDouble() is in (0, 1], so log is finite
+        return (long) (Math.log(1.0 - rand.nextDouble()) / logOneMinusProbability);
+    }
+
+    /**
+     * Edge weights distribution, all weights are in [0, 200) like in 'generate'.
+     */
+    enum WeightDistribution {
+
+        /**
+         * Sum of two uniform [0, 100) values, same as 'generate'.
+         */
+        TRIANGULAR {
+            @Override
+            int next(SplittableRandom rand) {
+                return rand.nextInt(100) + rand.nextInt(100);
+            }
+        },
+
+        UNIFORM {
+            @Override
+            int next(SplittableRandom rand) {
+                return rand.nextInt(200);
+            }
+        },
+
+        /**
+         * Mostly light edges with rare heavy ones, mean is about 20.
+         */
+        EXPONENTIAL {
+            @Override
+            int next(SplittableRandom rand) {
+                return (int) Math.min(199.0, -20.0 * Math.log(1.0 - rand.nextDouble()));
+            }
+        };
+
+        abstract int next(SplittableRandom rand);
+    }
+
 }
@@ -0,0 +1,74 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for parallel delta-stepping vs sequential Dijkstra on a large sparse DAG,
+ * delta-stepping is measured with different number of fork-join threads.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class DeltaSteppingBenchmark {
+
+    private static final double AVERAGE_DEGREE = 8.0;
+
+    @Param({"1000000", "10000000"})
+    public int vertexesCount;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threadsCount;
+
+    @Param({"32"})
+    public int delta;
+
+    private CompactGraph graph;
+    private ForkJoinPool pool;
+    private IndexedDaryMinHeap heap;
+    private String src;
+    private String dest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = DagGenerator.generateCompact(vertexesCount, AVERAGE_DEGREE,
+                DagGenerator.WeightDistribution.TRIANGULAR, 42L);
+        pool = new ForkJoinPool(threadsCount);
+        heap = new IndexedDaryMinHeap(4, graph.vertexesCount());
+        src = "0";
+        dest = String.valueOf(vertexesCount - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int dijkstra() {
+        return graph.shortestPathDijkstra(src, dest, heap);
+    }
+
+    @Benchmark
+    public int deltaStepping() {
+        return graph.shortestPathDeltaStepping(src, dest, delta, pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(DeltaSteppingBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,240 @@
+package benchmark.graph;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+final class DeltaSteppingShortestPath {
+
+    /**
+     * Generated weights are in [0, 200), so with delta 32 there are only 8 buckets in use at any time.
+     */
+    static final int DEFAULT_DELTA = 32;
+
+    /**
+     * Frontier smaller than this is relaxed in the calling thread, bigger one is split into fork-join tasks.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private DeltaSteppingShortestPath() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    /**
+     * Delta-stepping single source shortest path (Meyer and Sanders) over CSR graph.
+     * <p>
+     * Vertexes are kept in buckets of width 'delta' by tentative distance. Buckets are processed in increasing
+     * order: light edges (weight <= delta) of the current bucket are relaxed repeatedly until the bucket stays
+     * empty, then heavy edges of all vertexes settled in this bucket are relaxed once. All vertexes of a frontier
+     * are relaxed in parallel on 'pool' with CAS based distance updates. Because weights are bounded, only
+     * 'maxWeight / delta + 2' buckets can be non-empty at the same time, so buckets are reused cyclically.
+     * <p>
+     * Search stops as soon as 'dest' is settled. Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     * <p>
+     * time: O(V + E + L * maxWeight / delta) work, L - max shortest path weight
+     * space: O(V + E)
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph, int delta, ForkJoinPool pool) {
+        checkArgument(delta > 0, "delta should be positive: %s", delta);
+
+        final int vertexesCount = graph.vertexesCount();
+
+        AtomicIntegerArray distances = new AtomicIntegerArray(vertexesCount);
+        for (int i = 0; i < vertexesCount; ++i) {
+            distances.lazySet(i, Integer.MAX_VALUE);
+        }
+
+        IntArrayList[] buckets = new IntArrayList[graph.maxWeight() / delta + 2];
+        for (int i = 0; i < buckets.length; ++i) {
+            buckets[i] = new IntArrayList();
+        }
+
+        // phase stamp for every vertex, used to remove duplicates from a frontier
+        int[] lastPhase = new int[vertexesCount];
+        int phase = 0;
+
+        IntArrayList settled = new IntArrayList();
+        Relaxation relaxation = new Relaxation(graph, distances, delta);
+
+        distances.set(src, 0);
+        buckets[0].add(src);
+
+        int emptyBucketsInRow = 0;
+
+        for (int current = 0; emptyBucketsInRow < buckets.length; ++current) {
+
+            IntArrayList bucket = buckets[current % buckets.length];
+
+            if (bucket.isEmpty()) {
+                ++emptyBucketsInRow;
+                continue;
+            }
+
+            emptyBucketsInRow = 0;
+            settled.clear();
+
+            // light edges, vertexes can be re-inserted into the current bucket
+            while (!bucket.isEmpty()) {
+                ++phase;
+
+                IntArrayList frontier = new IntArrayList(bucket.size());
+
+                for (int i = 0; i < bucket.size(); ++i) {
+                    int vertex = bucket.get(i);
+
+                    if (distances.get(vertex) / delta == current && lastPhase[vertex] != phase) {
+                        lastPhase[vertex] = phase;
+                        frontier.add(vertex);
+                    }
+                }
+
+                bucket.clear();
+                settled.addAll(frontier);
+
+                relaxation.relax(frontier, true, pool);
+                relaxation.distribute(buckets);
+            }
+
+            // all light edges processed, heavy edges can only produce distances >= (current + 1) * delta
+            int destDistance = distances.get(dest);
+            if (destDistance != Integer.MAX_VALUE && destDistance / delta <= current) {
+                return destDistance;
+            }
+
+            relaxation.relax(settled, false, pool);
+            relaxation.distribute(buckets);
+        }
+
+        return distances.get(dest);
+    }
+
+    /**
+     * Relaxes edges of a frontier in parallel and collects vertexes with improved distances.
+     */
+    private static final class Relaxation {
+
+        final CompactGraph graph;
+        final AtomicIntegerArray distances;
+        final int delta;
+
+        final AtomicInteger improvedCount = new AtomicInteger();
+        int[] improved = new int[SEQUENTIAL_THRESHOLD];
+
+        Relaxation(CompactGraph graph, AtomicIntegerArray distances, int delta) {
+            this.graph = graph;
+            this.distances = distances;
+            this.delta = delta;
+        }
+
+        void relax(IntArrayList frontier, boolean light, ForkJoinPool pool) {
+
+            int edgesCount = 0;
+            for (int i = 0; i < frontier.size(); ++i) {
+                int vertex = frontier.get(i);
+                edgesCount += graph.offsets[vertex + 1] - graph.offsets[vertex];
+            }
+
+            if (improved.length < edgesCount) {
+                improved = new int[Math.max(edgesCount, improved.length * 2)];
+            }
+
+            improvedCount.set(0);
+
+            int[] vertexes = frontier.toArray();
+
+            if (vertexes.length <= SEQUENTIAL_THRESHOLD) {
+                relaxRange(vertexes, 0, vertexes.length, light);
+            }
+            else {
+                pool.invoke(new RelaxTask(this, vertexes, 0, vertexes.length, light));
+            }
+        }
+
+        /**
+         * Put improved vertexes into buckets according to their current distance.
+         */
+        void distribute(IntArrayList[] buckets) {
+            for (int i = 0, last = improvedCount.get(); i < last; ++i) {
+                int vertex = improved[i];
+                buckets[(distances.get(vertex) / delta) % buckets.length].add(vertex);
+            }
+        }
+
+        void relaxRange(int[] vertexes, int from, int to, boolean light) {
+
+            final int[] offsets = graph.offsets;
+            final int[] targets = graph.targets;
+            final int[] weights = graph.weights;
+
+            IntArrayList localImproved = new IntArrayList();
+
+            for (int index = from; index < to; ++index) {
+
+                final int vertex = vertexes[index];
+                final int curDistance = distances.get(vertex);
+
+                for (int i = offsets[vertex], last = offsets[vertex + 1]; i < last; ++i) {
+
+                    if ((weights[i] <= delta) != light) {
+                        continue;
+                    }
+
+                    final int otherVertex = targets[i];
+                    final int newDistance = curDistance + weights[i];
+
+                    int otherDistance = distances.get(otherVertex);
+
+                    while (newDistance < otherDistance) {
+                        if (distances.compareAndSet(otherVertex, otherDistance, newDistance)) {
+                            localImproved.add(otherVertex);
+                            break;
+                        }
+                        otherDistance = distances.get(otherVertex);
+                    }
+                }
+            }
+
+            // single atomic operation per task to reserve space in shared buffer
+            int offset = improvedCount.getAndAdd(localImproved.size());
+            for (int i = 0; i < localImproved.size(); ++i) {
+                improved[offset + i] = localImproved.get(i);
+            }
+        }
+    }
+
+    private static final class RelaxTask extends RecursiveAction {
+
+        final Relaxation relaxation;
+        final int[] vertexes;
+        final int from;
+        final int to;
+        final boolean light;
+
+        RelaxTask(Relaxation relaxation, int[] vertexes, int from, int to, boolean light) {
+            this.relaxation = relaxation;
+            this.vertexes = vertexes;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                relaxation.relaxRange(vertexes, from, to, light);
+                return;
+            }
+
+            final int middle = from + (to - from) / 2;
+
+            invokeAll(new RelaxTask(relaxation, vertexes, from, middle, light),
+                      new RelaxTask(relaxation, vertexes, middle, to, light));
+        }
+    }
+
+}
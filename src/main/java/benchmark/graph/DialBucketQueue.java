@@ -0,0 +1,56 @@
+package benchmark.graph;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Dial's circular bucket queue for small non-negative integer keys.
+ * <p>
+ * With max edge weight C all keys in queue are within [lastPolled, lastPolled + C], so 'C + 1' buckets
+ * indexed by 'key % (C + 1)' are enough and every bucket holds vertexes with exactly the same key.
+ * add/decreaseKey are O(1), poll scans at most 'C + 1' buckets, so Dijkstra runs in O(V + E + L),
+ * where L is the max shortest path weight.
+ */
+final class DialBucketQueue extends LinkedBucketQueue {
+
+    private final int maxWeight;
+
+    // key of the last polled vertex, all keys in queue are >= current
+    private int current;
+
+    DialBucketQueue(int capacity, int maxWeight) {
+        super(capacity, checkMaxWeight(maxWeight) + 1);
+        this.maxWeight = maxWeight;
+    }
+
+    private static int checkMaxWeight(int maxWeight) {
+        checkArgument(maxWeight >= 0, "negative max weight: %s", maxWeight);
+        return maxWeight;
+    }
+
+    @Override
+    int bucketIndex(int key) {
+        assert key >= current && key - current <= maxWeight : "key out of range: " + key;
+        return key % bucketsCount();
+    }
+
+    @Override
+    public int poll() {
+        assert !isEmpty();
+
+        int bucket = current % bucketsCount();
+
+        while (isNil(head(bucket))) {
+            ++current;
+            bucket = (bucket + 1 == bucketsCount()) ? 0 : bucket + 1;
+        }
+
+        return pollHead(bucket);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        current = 0;
+    }
+
+}
@@ -0,0 +1,108 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for Dijkstra over CSR graph with different priority queues: packed long heap with lazy
+ * deletion, allocation free indexed d-ary heap with arity 2, 4 and 8, Dial's buckets and radix heap.
+ * Queues are allocated once per thread and reused, so the indexed variants do no allocations at all.
+ */
+@State(Scope.Group)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(5)
+public class DijkstraHeapArityBenchmark {
+
+    private static final int GRAPH_VERTEXES_COUNT = 2_000;
+
+    private static final int THREADS_COUNT = 2;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(DijkstraHeapArityBenchmark.class.getSimpleName())
+                .threads(Runtime.getRuntime().availableProcessors())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    @Group("packedHeap")
+    @GroupThreads(THREADS_COUNT)
+    public int packedHeap(GraphPerThread state) {
+        return state.graph.shortestPathDijkstra(state.src, state.dest);
+    }
+
+    @Benchmark
+    @Group("indexedHeap2")
+    @GroupThreads(THREADS_COUNT)
+    public int indexedHeap2(GraphPerThread state) {
+        return state.graph.shortestPathDijkstra(state.src, state.dest, state.heap2);
+    }
+
+    @Benchmark
+    @Group("indexedHeap4")
+    @GroupThreads(THREADS_COUNT)
+    public int indexedHeap4(GraphPerThread state) {
+        return state.graph.shortestPathDijkstra(state.src, state.dest, state.heap4);
+    }
+
+    @Benchmark
+    @Group("indexedHeap8")
+    @GroupThreads(THREADS_COUNT)
+    public int indexedHeap8(GraphPerThread state) {
+        return state.graph.shortestPathDijkstra(state.src, state.dest, state.heap8);
+    }
+
+    @Benchmark
+    @Group("dialBuckets")
+    @GroupThreads(THREADS_COUNT)
+    public int dialBuckets(GraphPerThread state) {
+        return state.graph.shortestPathDijkstra(state.src, state.dest, state.dialQueue);
+    }
+
+    @Benchmark
+    @Group("radixHeap")
+    @GroupThreads(THREADS_COUNT)
+    public int radixHeap(GraphPerThread state) {
+        return state.graph.shortestPathDijkstra(state.src, state.dest, state.radixHeap);
+    }
+
+    @State(Scope.Thread)
+    public static class GraphPerThread {
+
+        CompactGraph graph;
+        String src;
+        String dest;
+
+        IndexedDaryMinHeap heap2;
+        IndexedDaryMinHeap heap4;
+        IndexedDaryMinHeap heap8;
+        DialBucketQueue dialQueue;
+        RadixHeap radixHeap;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String[] labels = ShortestPathInGraphBenchmark.generateVertexesLabels(GRAPH_VERTEXES_COUNT);
+
+            graph = DagGenerator.generate(labels).compile();
+            src = labels[0];
+            dest = labels[labels.length - 1];
+
+            heap2 = new IndexedDaryMinHeap(2, graph.vertexesCount());
+            heap4 = new IndexedDaryMinHeap(4, graph.vertexesCount());
+            heap8 = new IndexedDaryMinHeap(8, graph.vertexesCount());
+            dialQueue = new DialBucketQueue(graph.vertexesCount(), graph.maxWeight());
+            radixHeap = new RadixHeap(graph.vertexesCount());
+        }
+    }
+
+}
@@ -55,6 +55,245 @@ final class DijkstraShortestPath {
         }
     }
 
+    /**
+     * Dijkstra over CSR graph. Priority queue stores packed (distance, vertex) pairs as primitive longs with
+     * lazy deletion of stale entries, so there are no boxed or hashed keys in the hot loop.
+     * Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     * <p>
+     * time: O((V+E)*lgE)
+     * space: O(V + E)
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph) {
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        int[] distances = new int[graph.vertexesCount()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        distances[src] = 0;
+
+        PackedMinHeap heap = new PackedMinHeap();
+        heap.add(0, src);
+
+        while (!heap.isEmpty()) {
+
+            long cur = heap.poll();
+
+            final int curWeight = PackedMinHeap.weight(cur);
+            final int curVertex = PackedMinHeap.vertex(cur);
+
+            // stale entry, vertex was already settled with a smaller distance
+            if (curWeight > distances[curVertex]) {
+                continue;
+            }
+
+            if (curVertex == dest) {
+                return curWeight;
+            }
+
+            for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+                final int otherVertex = targets[i];
+                final int newWeight = curWeight + weights[i];
+
+                if (newWeight < distances[otherVertex]) {
+                    distances[otherVertex] = newWeight;
+                    heap.add(newWeight, otherVertex);
+                }
+            }
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Dijkstra over CSR graph using indexed priority queue with decrease-key. Queue keys are used as tentative
+     * distances, so the only per-query state is the queue itself, which is cleared and reused by the caller.
+     * There are no allocations per relaxation (or per query, when the same queue is reused).
+     * Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     * <p>
+     * time: O(V*d*log_d(V) + E*log_d(V)) for d-ary heap, O(V + E + L) for Dial's buckets,
+     * O(V*lgC + E) for radix heap (L - max path weight, C - max edge weight)
+     * space: O(V), preallocated inside queue
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph, VertexPriorityQueue heap) {
+        assert heap.capacity() >= graph.vertexesCount();
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        heap.clear();
+        heap.add(src, 0);
+
+        while (!heap.isEmpty()) {
+
+            final int curVertex = heap.poll();
+            final int curWeight = heap.key(curVertex);
+
+            if (curVertex == dest) {
+                return curWeight;
+            }
+
+            for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+                final int otherVertex = targets[i];
+                final int newWeight = curWeight + weights[i];
+
+                if (heap.contains(otherVertex)) {
+                    if (newWeight < heap.key(otherVertex)) {
+                        heap.decreaseKey(otherVertex, newWeight);
+                    }
+                }
+                else if (!heap.isPolled(otherVertex)) {
+                    heap.add(otherVertex, newWeight);
+                }
+            }
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Same as above, but also records predecessor of every relaxed vertex into 'predecessors', so the path can
+     * be restored by walking back from 'dest' (see Route). Predecessors of settled vertexes never change,
+     * so entries on the path are always written by the current query and the buffer doesn't need clearing.
+     * <p>
+     * space: O(V), preallocated inside queue and caller provided 'predecessors' buffer
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph, VertexPriorityQueue heap, int[] predecessors) {
+        assert heap.capacity() >= graph.vertexesCount();
+        assert predecessors.length >= graph.vertexesCount();
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        heap.clear();
+        heap.add(src, 0);
+
+        while (!heap.isEmpty()) {
+
+            final int curVertex = heap.poll();
+            final int curWeight = heap.key(curVertex);
+
+            if (curVertex == dest) {
+                return curWeight;
+            }
+
+            for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+                final int otherVertex = targets[i];
+                final int newWeight = curWeight + weights[i];
+
+                if (heap.contains(otherVertex)) {
+                    if (newWeight < heap.key(otherVertex)) {
+                        heap.decreaseKey(otherVertex, newWeight);
+                        predecessors[otherVertex] = curVertex;
+                    }
+                }
+                else if (!heap.isPolled(otherVertex)) {
+                    heap.add(otherVertex, newWeight);
+                    predecessors[otherVertex] = curVertex;
+                }
+            }
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Binary min heap of (weight, vertex) pairs packed into a single long: weight in the high 32 bits,
+     * vertex id in the low 32 bits. Both values are non-negative, so long ordering is (weight, vertex) ordering.
+     * Also used by ContractionHierarchy as vertexes contraction queue.
+     */
+    static final class PackedMinHeap {
+
+        private long[] heap = new long[16];
+        private int last;
+
+        static int weight(long packed) {
+            return (int) (packed >>> 32);
+        }
+
+        static int vertex(long packed) {
+            return (int) packed;
+        }
+
+        void add(int weight, int vertex) {
+            if (last == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            }
+
+            heap[last] = ((long) weight << 32) | vertex;
+            ++last;
+            fixUp(last - 1);
+        }
+
+        long peek() {
+            assert last != 0;
+            return heap[0];
+        }
+
+        long poll() {
+            long res = heap[0];
+
+            --last;
+            heap[0] = heap[last];
+
+            if (last != 0) {
+                fixDown(0);
+            }
+
+            return res;
+        }
+
+        boolean isEmpty() {
+            return last == 0;
+        }
+
+        private void fixUp(int index) {
+            long value = heap[index];
+            int cur = index;
+
+            while (cur != 0) {
+                int parent = (cur - 1) >>> 1;
+
+                if (heap[parent] <= value) {
+                    break;
+                }
+
+                heap[cur] = heap[parent];
+                cur = parent;
+            }
+
+            heap[cur] = value;
+        }
+
+        private void fixDown(int index) {
+            long value = heap[index];
+            int cur = index;
+
+            while (true) {
+                int minIndex = 2 * cur + 1;
+
+                if (minIndex >= last) {
+                    break;
+                }
+
+                if (minIndex + 1 < last && heap[minIndex + 1] < heap[minIndex]) {
+                    ++minIndex;
+                }
+
+                if (value <= heap[minIndex]) {
+                    break;
+                }
+
+                heap[cur] = heap[minIndex];
+                cur = minIndex;
+            }
+
+            heap[cur] = value;
+        }
+    }
 
     private static class MinHeap {
 
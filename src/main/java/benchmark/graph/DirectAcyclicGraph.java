@@ -1,78 +1,264 @@
 package benchmark.graph;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
 final class DirectAcyclicGraph {
 
     private final Map<String, List<EdgeWithWeight>> adjList = new HashMap<>();
 
-    boolean isConnected() {
-
-        Set<String> marked = new HashSet<>();
-
-        Deque<String> stack = new ArrayDeque<>();
+    // topological order updated on every addVertex/addEdge call, null if incremental order is disabled
+    private final IncrementalTopologicalOrder topologicalOrder;
 
-        String firstVertex = getSourceVertexes().iterator().next();
-        marked.add(firstVertex);
+    // frozen CSR form of 'adjList', reset on every modification
+    private CompactGraph compiled;
 
-        stack.push(firstVertex);
+    DirectAcyclicGraph() {
+        this(true);
+    }
 
-        while (!stack.isEmpty()) {
-            String vertex = stack.pop();
+    private DirectAcyclicGraph(boolean incrementalOrder) {
+        this.topologicalOrder = incrementalOrder ? new IncrementalTopologicalOrder() : null;
+    }
 
-            for (EdgeWithWeight edge : getEdges(vertex)) {
-                if (!marked.contains(edge.dest)) {
-                    stack.push(edge.dest);
-                    marked.add(edge.dest);
-                }
-            }
-        }
+    /**
+     * Graph without incrementally maintained topological order: edge inserts are O(1), but they aren't checked
+     * for cycles, and 'shortestPathInOrder'/'topologicalPosition' aren't supported. Used as a baseline for
+     * algorithms that calculate topological order per query.
+     */
+    static DirectAcyclicGraph withoutIncrementalOrder() {
+        return new DirectAcyclicGraph(false);
+    }
 
-        return marked.size() == adjList.size();
+    /**
+     * All vertexes are reachable from the source vertex, checked over the compiled graph with a bitset,
+     * see GraphConnectivity.
+     */
+    boolean isConnected() {
+        return compile().isConnected(ForkJoinPool.commonPool());
     }
 
     int shortestPathAllPairs(String src, String dest) {
         return AllPairsShortestPath.calculateShortestPath(src, dest, adjList);
     }
 
+    /**
+     * Distances between all pairs of vertexes, calculated once with tiled Floyd-Warshall using common pool.
+     */
+    DistanceMatrix allPairsShortestPaths() {
+        return compile().allPairsShortestPaths(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Distances between all pairs of vertexes, calculated once with Johnson's algorithm using common pool.
+     */
+    DistanceMatrix allPairsShortestPathsJohnson() {
+        return compile().allPairsShortestPathsJohnson(ForkJoinPool.commonPool());
+    }
+
     int shortestPathDijkstra(String src, String dest) {
         return DijkstraShortestPath.shortestPath(src, dest, adjList);
     }
 
+    /**
+     * Dijkstra over compiled graph with caller selected priority queue (IndexedDaryMinHeap, DialBucketQueue or
+     * RadixHeap), queue capacity should be at least the number of vertexes.
+     */
+    int shortestPathDijkstra(String src, String dest, VertexPriorityQueue queue) {
+        return compile().shortestPathDijkstra(src, dest, queue);
+    }
+
+    /**
+     * Shortest path with vertexes over compiled graph using topological sorting, 'predecessors' is a reusable
+     * scratch buffer with at least vertexes count elements, see Route.
+     */
+    Route shortestPathRoute(String src, String dest, int[] predecessors) {
+        return compile().shortestPathRoute(src, dest, predecessors);
+    }
+
+    /**
+     * Shortest path with vertexes over compiled graph using Dijkstra with caller selected priority queue.
+     */
+    Route shortestPathRouteDijkstra(String src, String dest, VertexPriorityQueue queue, int[] predecessors) {
+        return compile().shortestPathRouteDijkstra(src, dest, queue, predecessors);
+    }
+
+    /**
+     * Bidirectional Dijkstra over compiled graph, see BidirectionalDijkstraShortestPath.
+     */
+    int shortestPathBidirectionalDijkstra(String src, String dest) {
+        return compile().shortestPathBidirectionalDijkstra(src, dest);
+    }
+
+    /**
+     * Contraction hierarchy over compiled graph, preprocessed once and cached until the next modification.
+     */
+    ContractionHierarchy contractionHierarchy() {
+        return compile().contractionHierarchy();
+    }
+
+    /**
+     * A* with landmarks heuristic, see LandmarkShortestPath. Landmarks are calculated on the first call.
+     */
+    int shortestPathLandmarks(String src, String dest) {
+        return shortestPathLandmarks(src, dest, LandmarkShortestPath.DEFAULT_LANDMARKS_COUNT);
+    }
+
+    int shortestPathLandmarks(String src, String dest, int landmarksCount) {
+        return landmarks(landmarksCount).shortestPath(src, dest);
+    }
+
+    LandmarkShortestPath landmarks(int landmarksCount) {
+        return compile().landmarks(landmarksCount);
+    }
+
+    /**
+     * Parallel delta-stepping over compiled graph using common pool.
+     */
+    int shortestPathDeltaStepping(String src, String dest) {
+        return compile().shortestPathDeltaStepping(src, dest, DeltaSteppingShortestPath.DEFAULT_DELTA,
+                ForkJoinPool.commonPool());
+    }
+
     int shortestPath(String src, String dest) {
         return TopologicalSortingShortestPath.shortestPath(src, dest, adjList);
     }
 
-    Set<String> getSourceVertexes() {
+    /**
+     * Shortest path using incrementally maintained topological order, so relaxation starts immediately
+     * from 'src' position without recalculating vertex degrees.
+     */
+    int shortestPathInOrder(String src, String dest) {
+        checkState(topologicalOrder != null, "Incremental topological order is disabled");
+        return TopologicalSortingShortestPath.shortestPath(src, dest, adjList, topologicalOrder);
+    }
 
-        Set<String> candidates = new HashSet<>(adjList.keySet());
+    /**
+     * Position of vertex in incrementally maintained topological order or CompactGraph.NO_VERTEX if there is
+     * no such vertex. Positions of existing vertexes can change on every addEdge call.
+     */
+    int topologicalPosition(String vertex) {
+        checkState(topologicalOrder != null, "Incremental topological order is disabled");
+        return topologicalOrder.position(vertex);
+    }
 
-        for (List<EdgeWithWeight> allEdges : adjList.values()) {
-            for (EdgeWithWeight edge : allEdges) {
-                candidates.remove(edge.dest);
-            }
+    /**
+     * Batch of (srcs[i], dests[i]) queries. Topological order is calculated once and cached in compiled graph
+     * until the next modification, every distinct source is processed with a single relaxation sweep.
+     */
+    int[] shortestPaths(String[] srcs, String[] dests) {
+        return compile().shortestPaths(srcs, dests);
+    }
+
+    /**
+     * Compile graph into frozen CSR form. Compiled graph is cached until the next addVertex/addEdge call.
+     */
+    CompactGraph compile() {
+        if (compiled == null) {
+            compiled = CompactGraph.compile(adjList);
         }
+        return compiled;
+    }
 
-        checkArgument(!candidates.isEmpty(), "No source vertex (with 0 in degree) in DAG.");
+    /**
+     * Inverse of 'compile', used for graphs loaded from GraphFile. Vertexes are added in topological order,
+     * so incremental topological order never has to reorder anything.
+     * <p>
+     * time: O(V + E)
+     */
+    static DirectAcyclicGraph fromCompact(CompactGraph compactGraph) {
+        return fromCompact(compactGraph, true);
+    }
+
+    static DirectAcyclicGraph fromCompact(CompactGraph compactGraph, boolean incrementalOrder) {
+        DirectAcyclicGraph graph = new DirectAcyclicGraph(incrementalOrder);
 
-        return Collections.unmodifiableSet(candidates);
+        int[] order = compactGraph.topologicalOrder().order;
+
+        for (int vertex : order) {
+            graph.addVertex(compactGraph.label(vertex));
+        }
+
+        for (int vertex : order) {
+            String src = compactGraph.label(vertex);
+
+            for (int i = compactGraph.offsets[vertex], last = compactGraph.offsets[vertex + 1]; i < last; ++i) {
+                graph.addEdge(src, compactGraph.label(compactGraph.targets[i]), compactGraph.weights[i]);
+            }
+        }
+
+        return graph;
     }
 
-    private List<EdgeWithWeight> getEdges(String vertex) {
-        assert adjList.containsKey(vertex);
-        return adjList.get(vertex);
+    Set<String> getSourceVertexes() {
+
+        CompactGraph graph = compile();
+        int[] sources = graph.sourceVertexes();
+
+        checkArgument(sources.length != 0, "No source vertex (with 0 in degree) in DAG.");
+
+        Set<String> res = new HashSet<>();
+        for (int source : sources) {
+            res.add(graph.label(source));
+        }
+
+        return Collections.unmodifiableSet(res);
     }
 
     void addVertex(String vertex) {
         assert !adjList.containsKey(vertex);
 
         adjList.put(vertex, new ArrayList<>());
+        if (topologicalOrder != null) {
+            topologicalOrder.addVertex(vertex);
+        }
+        compiled = null;
     }
 
+    /**
+     * Add edge 'src -> dest', throws IllegalArgumentException if any of vertexes doesn't exist or the edge creates
+     * a cycle (cycles are detected only if incremental topological order is enabled).
+     */
     void addEdge(String src, String dest, int weight) {
-        adjList.get(src).add(new EdgeWithWeight(dest, weight));
+        List<EdgeWithWeight> edges = adjList.get(src);
+
+        checkArgument(edges != null, "Unknown vertex: '%s'", src);
+        checkArgument(adjList.containsKey(dest), "Unknown vertex: '%s'", dest);
+
+        if (topologicalOrder != null && !topologicalOrder.addEdge(src, dest, adjList)) {
+            throw new IllegalArgumentException("Edge '" + src + " -> " + dest + "' creates a cycle");
+        }
+
+        edges.add(new EdgeWithWeight(dest, weight));
+        compiled = null;
+    }
+
+    /**
+     * Remove a single edge 'src -> dest' (any of them if there are parallel edges).
+     * Returns false if there is no such edge.
+     */
+    boolean removeEdge(String src, String dest) {
+        List<EdgeWithWeight> edges = adjList.get(src);
+
+        if (edges == null) {
+            return false;
+        }
+
+        for (Iterator<EdgeWithWeight> it = edges.iterator(); it.hasNext(); ) {
+            if (it.next().dest.equals(dest)) {
+                it.remove();
+                if (topologicalOrder != null) {
+                    topologicalOrder.removeEdge(src, dest);
+                }
+                compiled = null;
+                return true;
+            }
+        }
+
+        return false;
     }
 
 }
@@ -0,0 +1,115 @@
+package benchmark.graph;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * All pairs shortest path distances for CSR graph, stored as flat row-major int[] matrix.
+ * Calculated once and reused for any number of (src, dest) queries.
+ * <p>
+ * Row length ('stride') can be bigger than vertexes count, when matrix is padded to a tile size.
+ * Unreachable pairs are stored as any value >= 'infinity' and reported as Integer.MAX_VALUE.
+ */
+final class DistanceMatrix {
+
+    /**
+     * Max array length supported by most JVMs, limits matrix to about 46K vertexes.
+     */
+    static final long MAX_CELLS_COUNT = Integer.MAX_VALUE - 8;
+
+    private final CompactGraph graph;
+    private final int[] distances;
+    private final int stride;
+    private final int infinity;
+
+    DistanceMatrix(CompactGraph graph, int[] distances, int stride, int infinity) {
+        assert distances.length >= stride * graph.vertexesCount();
+
+        this.graph = graph;
+        this.distances = distances;
+        this.stride = stride;
+        this.infinity = infinity;
+    }
+
+    /**
+     * Number of cells of 'stride x stride' matrix, throws IllegalArgumentException if it doesn't fit into
+     * a single array.
+     */
+    static int cellsCount(int stride) {
+        final long cellsCount = (long) stride * stride;
+
+        checkArgument(cellsCount <= MAX_CELLS_COUNT,
+                      "Distance matrix %sx%s is too big, at most %s cells are supported", stride, stride,
+                      MAX_CELLS_COUNT);
+
+        return (int) cellsCount;
+    }
+
+    int vertexesCount() {
+        return graph.vertexesCount();
+    }
+
+    /**
+     * Returns distance between vertexes, Integer.MAX_VALUE if 'dest' isn't reachable from 'src' and
+     * -1 if any of vertexes doesn't exist.
+     */
+    int distance(String src, String dest) {
+        final int srcId = graph.id(src);
+        final int destId = graph.id(dest);
+
+        if (srcId == CompactGraph.NO_VERTEX || destId == CompactGraph.NO_VERTEX) {
+            return -1;
+        }
+
+        return distance(srcId, destId);
+    }
+
+    int distance(int src, int dest) {
+        int res = distances[src * stride + dest];
+        return res >= infinity ? Integer.MAX_VALUE : res;
+    }
+
+    /**
+     * Shortest path between vertexes restored from the matrix itself: from every path vertex we follow an
+     * outgoing edge 'cur -> next' with 'weight + distance(next, dest) == distance(cur, dest)'. No V * V
+     * successors matrix is needed, path is written into 'predecessors' buffer, see Route.
+     * <p>
+     * time: O(sum of out degrees along the path)
+     */
+    Route route(String src, String dest, int[] predecessors) {
+        checkArgument(predecessors.length >= graph.vertexesCount(), "predecessors buffer is too small: %s",
+                predecessors.length);
+
+        final int srcId = graph.id(src);
+        final int destId = graph.id(dest);
+
+        if (srcId == CompactGraph.NO_VERTEX || destId == CompactGraph.NO_VERTEX) {
+            return Route.unknownVertex();
+        }
+
+        final int distance = distance(srcId, destId);
+
+        if (distance != Integer.MAX_VALUE) {
+            for (int cur = srcId; cur != destId; ) {
+                final int curDistance = distance(cur, destId);
+                int next = CompactGraph.NO_VERTEX;
+
+                for (int i = graph.offsets[cur], last = graph.offsets[cur + 1]; i < last; ++i) {
+                    final int otherDistance = distance(graph.targets[i], destId);
+
+                    if (otherDistance != Integer.MAX_VALUE && graph.weights[i] + otherDistance == curDistance) {
+                        next = graph.targets[i];
+                        break;
+                    }
+                }
+
+                assert next != CompactGraph.NO_VERTEX : "no edge on the shortest path";
+
+                predecessors[next] = cur;
+                cur = next;
+            }
+        }
+
+        return new Route(graph, predecessors, srcId, destId, distance);
+    }
+
+}
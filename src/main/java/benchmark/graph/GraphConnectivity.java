@@ -0,0 +1,246 @@
+package benchmark.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+final class GraphConnectivity {
+
+    /**
+     * Graphs with fewer vertexes are always checked sequentially, parallel BFS doesn't pay off for them.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Frontier smaller than this is expanded in the calling thread, bigger one is split into fork-join tasks.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private GraphConnectivity() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    /**
+     * Vertexes with 0 in-degree, in increasing id order.
+     * <p>
+     * time: O(V + E)
+     * space: O(V)
+     */
+    static int[] sourceVertexes(CompactGraph graph) {
+        final int vertexesCount = graph.vertexesCount();
+
+        int[] inDegree = new int[vertexesCount];
+        for (int target : graph.targets) {
+            ++inDegree[target];
+        }
+
+        int count = 0;
+        for (int degree : inDegree) {
+            if (degree == 0) {
+                ++count;
+            }
+        }
+
+        int[] res = new int[count];
+
+        int index = 0;
+        for (int vertex = 0; vertex < vertexesCount; ++vertex) {
+            if (inDegree[vertex] == 0) {
+                res[index++] = vertex;
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Same semantic as DirectAcyclicGraph.isConnected: all vertexes are reachable from a source vertex.
+     * A DAG with more than one source is never connected in this sense, so only graphs with a single source
+     * are traversed. Graphs with at least PARALLEL_THRESHOLD vertexes are traversed with parallel BFS on 'pool'.
+     * <p>
+     * time: O(V + E)
+     * space: O(V)
+     */
+    static boolean isConnected(CompactGraph graph, ForkJoinPool pool) {
+        int[] sources = sourceVertexes(graph);
+
+        checkArgument(sources.length != 0, "No source vertex (with 0 in degree) in DAG.");
+
+        if (sources.length > 1) {
+            return false;
+        }
+
+        final int reachableCount = graph.vertexesCount() >= PARALLEL_THRESHOLD && pool.getParallelism() > 1 ?
+                reachableCountParallel(graph, sources[0], pool) : reachableCount(graph, sources[0]);
+
+        return reachableCount == graph.vertexesCount();
+    }
+
+    /**
+     * Iterative DFS with long[] visited bitset and int[] stack, every vertex is pushed at most once.
+     */
+    static int reachableCount(CompactGraph graph, int src) {
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+
+        long[] visited = new long[(graph.vertexesCount() + 63) >>> 6];
+        int[] stack = new int[graph.vertexesCount()];
+        int size = 0;
+
+        visited[src >>> 6] |= 1L << src;
+        stack[size++] = src;
+
+        int count = 1;
+
+        while (size != 0) {
+            final int vertex = stack[--size];
+
+            for (int i = offsets[vertex], last = offsets[vertex + 1]; i < last; ++i) {
+                final int otherVertex = targets[i];
+                final long mask = 1L << otherVertex;
+
+                if ((visited[otherVertex >>> 6] & mask) == 0L) {
+                    visited[otherVertex >>> 6] |= mask;
+                    stack[size++] = otherVertex;
+                    ++count;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Level-synchronous BFS: the whole frontier is expanded in parallel, a vertex goes to the next frontier
+     * only by the thread which won CAS on its visited bit, so frontiers have no duplicates and
+     * fit into preallocated V sized buffers.
+     */
+    static int reachableCountParallel(CompactGraph graph, int src, ForkJoinPool pool) {
+        Expansion expansion = new Expansion(graph);
+
+        expansion.markVisited(src);
+        expansion.frontier[0] = src;
+        int frontierSize = 1;
+
+        int count = 0;
+
+        while (frontierSize != 0) {
+            count += frontierSize;
+
+            expansion.nextSize.set(0);
+
+            if (frontierSize <= SEQUENTIAL_THRESHOLD) {
+                expansion.expandRange(0, frontierSize);
+            }
+            else {
+                pool.invoke(new ExpandTask(expansion, 0, frontierSize));
+            }
+
+            frontierSize = expansion.swapFrontiers();
+        }
+
+        return count;
+    }
+
+    private static final class Expansion {
+
+        final CompactGraph graph;
+        final AtomicLongArray visited;
+
+        int[] frontier;
+        int[] next;
+        final AtomicInteger nextSize = new AtomicInteger();
+
+        Expansion(CompactGraph graph) {
+            this.graph = graph;
+            this.visited = new AtomicLongArray((graph.vertexesCount() + 63) >>> 6);
+            this.frontier = new int[graph.vertexesCount()];
+            this.next = new int[graph.vertexesCount()];
+        }
+
+        /**
+         * Returns true only for the first thread marking 'vertex'.
+         */
+        boolean markVisited(int vertex) {
+            final int index = vertex >>> 6;
+            final long mask = 1L << vertex;
+
+            while (true) {
+                final long word = visited.get(index);
+
+                if ((word & mask) != 0L) {
+                    return false;
+                }
+
+                if (visited.compareAndSet(index, word, word | mask)) {
+                    return true;
+                }
+            }
+        }
+
+        void expandRange(int from, int to) {
+            final int[] offsets = graph.offsets;
+            final int[] targets = graph.targets;
+
+            int[] local = new int[16];
+            int localSize = 0;
+
+            for (int index = from; index < to; ++index) {
+                final int vertex = frontier[index];
+
+                for (int i = offsets[vertex], last = offsets[vertex + 1]; i < last; ++i) {
+                    final int otherVertex = targets[i];
+
+                    if (markVisited(otherVertex)) {
+                        if (localSize == local.length) {
+                            local = Arrays.copyOf(local, localSize * 2);
+                        }
+                        local[localSize++] = otherVertex;
+                    }
+                }
+            }
+
+            // single atomic operation per task to reserve space in the next frontier
+            final int offset = nextSize.getAndAdd(localSize);
+            System.arraycopy(local, 0, next, offset, localSize);
+        }
+
+        int swapFrontiers() {
+            int[] temp = frontier;
+            frontier = next;
+            next = temp;
+            return nextSize.get();
+        }
+    }
+
+    private static final class ExpandTask extends RecursiveAction {
+
+        final Expansion expansion;
+        final int from;
+        final int to;
+
+        ExpandTask(Expansion expansion, int from, int to) {
+            this.expansion = expansion;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                expansion.expandRange(from, to);
+                return;
+            }
+
+            final int middle = from + (to - from) / 2;
+
+            invokeAll(new ExpandTask(expansion, from, middle),
+                      new ExpandTask(expansion, middle, to));
+        }
+    }
+
+}
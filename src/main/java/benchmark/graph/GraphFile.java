@@ -0,0 +1,213 @@
+package benchmark.graph;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Binary on-disk format for CompactGraph, all values are little-endian ints:
+ * <pre>
+ * header:      magic 'CSRG', version, flags, vertexesCount, edgesCount, labelBytesCount
+ * label table: only if flags has LABELS_FLAG: labelOffsets[vertexesCount + 1], UTF-8 label bytes padded to 4 bytes
+ * CSR arrays:  offsets[vertexesCount + 1], targets[edgesCount], weights[edgesCount]
+ * </pre>
+ * Graphs with implicit numeric labels have no label table at all. Files are read through a memory mapping and
+ * CSR arrays are bulk copied from the page cache, so there is no parsing, and repeated loads (JMH forks) of the
+ * same file are served from memory.
+ */
+final class GraphFile {
+
+    private static final int MAGIC = 0x47525343;
+
+    private static final int VERSION = 1;
+
+    private static final int LABELS_FLAG = 1;
+
+    private static final int HEADER_INTS_COUNT = 6;
+
+    private GraphFile() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    /**
+     * time: O(V + E)
+     */
+    static void write(CompactGraph graph, Path file) throws IOException {
+
+        final int vertexesCount = graph.vertexesCount();
+        final int edgesCount = graph.edgesCount();
+
+        byte[][] labels = null;
+        int labelBytesCount = 0;
+
+        if (!graph.hasImplicitLabels()) {
+            labels = new byte[vertexesCount][];
+
+            for (int id = 0; id < vertexesCount; ++id) {
+                labels[id] = graph.label(id).getBytes(StandardCharsets.UTF_8);
+                labelBytesCount += labels[id].length;
+            }
+        }
+
+        long size = 4L * HEADER_INTS_COUNT + 4L * (vertexesCount + 1) + 8L * edgesCount;
+
+        if (labels != null) {
+            size += 4L * (vertexesCount + 1) + align(labelBytesCount);
+        }
+
+        checkArgument(size <= Integer.MAX_VALUE, "Graph is too big for a single mapping: %s bytes", size);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            buf.putInt(MAGIC);
+            buf.putInt(VERSION);
+            buf.putInt(labels == null ? 0 : LABELS_FLAG);
+            buf.putInt(vertexesCount);
+            buf.putInt(edgesCount);
+            buf.putInt(labelBytesCount);
+
+            if (labels != null) {
+                int labelOffset = 0;
+                buf.putInt(labelOffset);
+
+                for (byte[] label : labels) {
+                    labelOffset += label.length;
+                    buf.putInt(labelOffset);
+                }
+
+                for (byte[] label : labels) {
+                    buf.put(label);
+                }
+
+                buf.position(buf.position() + align(labelBytesCount) - labelBytesCount);
+            }
+
+            putInts(buf, graph.offsets);
+            putInts(buf, graph.targets);
+            putInts(buf, graph.weights);
+
+            buf.force();
+        }
+    }
+
+    /**
+     * time: O(V + E), but most of the time is spent in a bulk memory copy for CSR arrays
+     */
+    static CompactGraph read(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            final long size = channel.size();
+            checkState(size >= 4L * HEADER_INTS_COUNT && size <= Integer.MAX_VALUE,
+                    "Not a graph file or too big for a single mapping: '%s'", file);
+
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            checkState(buf.getInt() == MAGIC, "Not a graph file: '%s'", file);
+
+            final int version = buf.getInt();
+            checkState(version == VERSION, "Unsupported graph file version %s: '%s'", version, file);
+
+            final int flags = buf.getInt();
+            final int vertexesCount = buf.getInt();
+            final int edgesCount = buf.getInt();
+            final int labelBytesCount = buf.getInt();
+
+            long expectedSize = 4L * HEADER_INTS_COUNT + 4L * (vertexesCount + 1) + 8L * edgesCount;
+            if ((flags & LABELS_FLAG) != 0) {
+                expectedSize += 4L * (vertexesCount + 1) + align(labelBytesCount);
+            }
+            checkState(vertexesCount >= 0 && edgesCount >= 0 && expectedSize == size,
+                    "Corrupted graph file: '%s'", file);
+
+            String[] labels = null;
+
+            if ((flags & LABELS_FLAG) != 0) {
+                int[] labelOffsets = getInts(buf, vertexesCount + 1);
+                checkState(isMonotone(labelOffsets, labelBytesCount), "Corrupted graph labels: '%s'", file);
+
+                byte[] labelBytes = new byte[labelBytesCount];
+                buf.get(labelBytes);
+                buf.position(buf.position() + align(labelBytesCount) - labelBytesCount);
+
+                labels = new String[vertexesCount];
+                for (int id = 0; id < vertexesCount; ++id) {
+                    labels[id] = new String(labelBytes, labelOffsets[id], labelOffsets[id + 1] - labelOffsets[id],
+                            StandardCharsets.UTF_8);
+                }
+            }
+
+            int[] offsets = getInts(buf, vertexesCount + 1);
+            int[] targets = getInts(buf, edgesCount);
+            int[] weights = getInts(buf, edgesCount);
+
+            checkState(offsets[vertexesCount] == edgesCount && isMonotone(offsets, edgesCount),
+                    "Corrupted graph offsets: '%s'", file);
+            checkState(allInRange(targets, vertexesCount), "Corrupted graph targets: '%s'", file);
+
+            return CompactGraph.of(labels, offsets, targets, weights);
+        }
+    }
+
+    /**
+     * Offsets start from 0, never decrease and never exceed 'limit', so every [offsets[i], offsets[i + 1])
+     * range is valid.
+     * <p>
+     * time: O(V)
+     */
+    private static boolean isMonotone(int[] offsets, int limit) {
+        if (offsets[0] != 0) {
+            return false;
+        }
+
+        for (int i = 1; i < offsets.length; ++i) {
+            if (offsets[i] < offsets[i - 1] || offsets[i] > limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * time: O(E)
+     */
+    private static boolean allInRange(int[] vertexes, int vertexesCount) {
+        for (int vertex : vertexes) {
+            if (vertex < 0 || vertex >= vertexesCount) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int align(int bytesCount) {
+        return (bytesCount + 3) & ~3;
+    }
+
+    private static void putInts(MappedByteBuffer buf, int[] arr) {
+        buf.asIntBuffer().put(arr);
+        buf.position(buf.position() + 4 * arr.length);
+    }
+
+    private static int[] getInts(MappedByteBuffer buf, int length) {
+        int[] arr = new int[length];
+        buf.asIntBuffer().get(arr);
+        buf.position(buf.position() + 4 * length);
+        return arr;
+    }
+
+}
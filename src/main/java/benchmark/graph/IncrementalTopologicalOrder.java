@@ -0,0 +1,188 @@
+package benchmark.graph;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Topological order of a DAG maintained incrementally on every vertex/edge insertion using
+ * Pearce-Kelly dynamic topological sort algorithm.
+ * <p>
+ * For a new edge 'src -> dest' nothing has to be done if 'dest' is already after 'src'. Otherwise, only the
+ * affected region between positions of 'dest' and 'src' is searched: forward from 'dest' and backward
+ * from 'src', and found vertexes are reassigned to the same set of positions, so that all vertexes reaching
+ * 'src' come first. If forward search reaches 'src', the edge creates a cycle and is rejected.
+ * <p>
+ * Reference: D. J. Pearce, P. H. J. Kelly, "A Dynamic Topological Sort Algorithm for Directed Acyclic Graphs".
+ */
+final class IncrementalTopologicalOrder {
+
+    private final List<String> order = new ArrayList<>();
+    private final ObjectIntHashMap<String> positions = new ObjectIntHashMap<>();
+
+    // incoming edges used by backward search
+    private final Map<String, List<String>> incoming = new HashMap<>();
+
+    int position(String vertex) {
+        return positions.getIfAbsent(vertex, CompactGraph.NO_VERTEX);
+    }
+
+    String vertexAt(int position) {
+        return order.get(position);
+    }
+
+    void addVertex(String vertex) {
+        assert !positions.containsKey(vertex);
+
+        positions.put(vertex, order.size());
+        order.add(vertex);
+        incoming.put(vertex, new ArrayList<>());
+    }
+
+    /**
+     * Update order for a new edge 'src -> dest'. Should be called before the edge is added to 'adjList'.
+     * Returns false and leaves order unchanged if the edge creates a cycle.
+     * <p>
+     * time: O(affected region vertexes + edges * lg(affected region))
+     */
+    boolean addEdge(String src, String dest, Map<String, List<EdgeWithWeight>> adjList) {
+
+        final int lowerBound = positions.getIfAbsent(dest, CompactGraph.NO_VERTEX);
+        final int upperBound = positions.getIfAbsent(src, CompactGraph.NO_VERTEX);
+
+        checkArgument(upperBound != CompactGraph.NO_VERTEX, "Unknown vertex: '%s'", src);
+        checkArgument(lowerBound != CompactGraph.NO_VERTEX, "Unknown vertex: '%s'", dest);
+
+        if (src.equals(dest)) {
+            return false;
+        }
+
+        if (lowerBound < upperBound) {
+            List<String> forwardVertexes = forwardSearch(src, dest, upperBound, adjList);
+
+            if (forwardVertexes == null) {
+                return false;
+            }
+
+            List<String> backwardVertexes = backwardSearch(src, lowerBound);
+
+            reorder(backwardVertexes, forwardVertexes);
+        }
+
+        incoming.get(dest).add(src);
+        return true;
+    }
+
+    /**
+     * Removing an edge never invalidates topological order, only backward search index is updated.
+     * Should be called after the edge is removed from 'adjList'.
+     */
+    void removeEdge(String src, String dest) {
+        incoming.get(dest).remove(src);
+    }
+
+    /**
+     * All vertexes reachable from 'dest' with position < upperBound or null if 'src' is reachable (cycle).
+     */
+    private List<String> forwardSearch(String src, String dest, int upperBound,
+                                       Map<String, List<EdgeWithWeight>> adjList) {
+
+        List<String> res = new ArrayList<>();
+
+        Set<String> marked = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+
+        marked.add(dest);
+        stack.push(dest);
+
+        while (!stack.isEmpty()) {
+            String vertex = stack.pop();
+            res.add(vertex);
+
+            for (EdgeWithWeight edge : adjList.get(vertex)) {
+                if (edge.dest.equals(src)) {
+                    return null;
+                }
+
+                if (positions.get(edge.dest) < upperBound && marked.add(edge.dest)) {
+                    stack.push(edge.dest);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * All vertexes that reach 'src' with position > lowerBound.
+     */
+    private List<String> backwardSearch(String src, int lowerBound) {
+
+        List<String> res = new ArrayList<>();
+
+        Set<String> marked = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+
+        marked.add(src);
+        stack.push(src);
+
+        while (!stack.isEmpty()) {
+            String vertex = stack.pop();
+            res.add(vertex);
+
+            for (String prev : incoming.get(vertex)) {
+                if (positions.get(prev) > lowerBound && marked.add(prev)) {
+                    stack.push(prev);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Reuse positions of all affected vertexes: backward vertexes first, then forward ones,
+     * relative order inside each group stays the same.
+     */
+    private void reorder(List<String> backwardVertexes, List<String> forwardVertexes) {
+
+        backwardVertexes.sort((first, second) -> Integer.compare(positions.get(first), positions.get(second)));
+        forwardVertexes.sort((first, second) -> Integer.compare(positions.get(first), positions.get(second)));
+
+        int[] freePositions = new int[backwardVertexes.size() + forwardVertexes.size()];
+
+        int index = 0;
+        for (String vertex : backwardVertexes) {
+            freePositions[index++] = positions.get(vertex);
+        }
+        for (String vertex : forwardVertexes) {
+            freePositions[index++] = positions.get(vertex);
+        }
+
+        Arrays.sort(freePositions);
+
+        index = 0;
+        for (String vertex : backwardVertexes) {
+            setPosition(vertex, freePositions[index++]);
+        }
+        for (String vertex : forwardVertexes) {
+            setPosition(vertex, freePositions[index++]);
+        }
+    }
+
+    private void setPosition(String vertex, int position) {
+        positions.put(vertex, position);
+        order.set(position, vertex);
+    }
+
+}
@@ -0,0 +1,184 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for mixed insert/query workload: a trickle of vertex/edge inserts followed by a burst of
+ * shortest path queries. Compares Kahn's topological sorting per query with incrementally maintained
+ * (Pearce-Kelly) topological order, where the ordering cost is paid on inserts. Kahn's variant uses a graph
+ * without incremental order, so its inserts are plain adjacency list appends.
+ * <p>
+ * Every insert adds a new vertex 'V' and two edges 'U -> V' and 'V -> W', where 'U' is before 'W' in
+ * generated order, so 'V -> W' edge always violates current order and forces reordering.
+ * <p>
+ * Inserts and queries are pregenerated once per trial, every iteration replays the same script of
+ * BURSTS_PER_ITERATION bursts over a fresh copy of the generated graph, so both variants do exactly the same
+ * work over the same bounded graph. Every variant has its own state that builds its own graph kind, see
+ * KahnGraph and IncrementalOrderGraph. Single shot score is the time of all bursts of an iteration.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 10, batchSize = IncrementalTopologicalOrderBenchmark.BURSTS_PER_ITERATION)
+@Measurement(iterations = 20, batchSize = IncrementalTopologicalOrderBenchmark.BURSTS_PER_ITERATION)
+@Fork(2)
+public class IncrementalTopologicalOrderBenchmark {
+
+    static final int BURSTS_PER_ITERATION = 64;
+
+    private static final int GRAPH_VERTEXES_COUNT = 1000;
+
+    private static final int INSERTS_PER_BURST = 4;
+
+    private static final int QUERIES_PER_BURST = 32;
+
+    private static final int INSERTS_COUNT = BURSTS_PER_ITERATION * INSERTS_PER_BURST;
+
+    private static final int QUERIES_COUNT = BURSTS_PER_ITERATION * QUERIES_PER_BURST;
+
+    private static final long SEED = 42L;
+
+    /**
+     * Generated graph, insert script and query destinations shared by both variants.
+     */
+    @State(Scope.Thread)
+    public static class Workload {
+
+        private String[] labels;
+        private CompactGraph generatedGraph;
+
+        // insert script: new vertex label, 'from -> vertex' and 'vertex -> to' edges with weights
+        private String[] insertedVertexes;
+        private String[] insertFrom;
+        private String[] insertTo;
+        private int[] insertFromWeights;
+        private int[] insertToWeights;
+
+        private String[] queryDests;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            labels = ShortestPathInGraphBenchmark.generateVertexesLabels(GRAPH_VERTEXES_COUNT);
+            generatedGraph = DagGenerator.generate(labels).compile();
+
+            Random rand = new Random(SEED);
+
+            insertedVertexes = new String[INSERTS_COUNT];
+            insertFrom = new String[INSERTS_COUNT];
+            insertTo = new String[INSERTS_COUNT];
+            insertFromWeights = new int[INSERTS_COUNT];
+            insertToWeights = new int[INSERTS_COUNT];
+
+            for (int i = 0; i < INSERTS_COUNT; ++i) {
+                int from = rand.nextInt(labels.length - 1);
+                int to = from + 1 + rand.nextInt(labels.length - from - 1);
+
+                insertedVertexes[i] = "new-" + i;
+                insertFrom[i] = labels[from];
+                insertTo[i] = labels[to];
+                insertFromWeights[i] = 1 + rand.nextInt(100);
+                insertToWeights[i] = 1 + rand.nextInt(100);
+            }
+
+            queryDests = new String[QUERIES_COUNT];
+            for (int i = 0; i < QUERIES_COUNT; ++i) {
+                queryDests[i] = labels[1 + rand.nextInt(labels.length - 1)];
+            }
+        }
+    }
+
+    /**
+     * Fresh graph copy per iteration and the next burst to replay. Workload is taken from the setup, JMH creates
+     * a separate instance for a benchmark method argument.
+     */
+    public abstract static class GraphCopy {
+
+        Workload workload;
+        DirectAcyclicGraph graph;
+        private int burst;
+
+        void reset(Workload workload, DirectAcyclicGraph graph) {
+            this.workload = workload;
+            this.graph = graph;
+            burst = 0;
+        }
+
+        /**
+         * Replays the next burst of the insert script, returns the first query index of the burst.
+         */
+        int insertBurst() {
+            assert burst < BURSTS_PER_ITERATION : "more bursts than pregenerated, check batchSize";
+
+            for (int i = burst * INSERTS_PER_BURST, last = i + INSERTS_PER_BURST; i < last; ++i) {
+                graph.addVertex(workload.insertedVertexes[i]);
+                graph.addEdge(workload.insertFrom[i], workload.insertedVertexes[i], workload.insertFromWeights[i]);
+                graph.addEdge(workload.insertedVertexes[i], workload.insertTo[i], workload.insertToWeights[i]);
+            }
+
+            final int queriesFrom = burst * QUERIES_PER_BURST;
+            ++burst;
+
+            return queriesFrom;
+        }
+    }
+
+    /**
+     * Graph without incremental order, inserts are plain adjacency list appends.
+     */
+    @State(Scope.Thread)
+    public static class KahnGraph extends GraphCopy {
+
+        @Setup(Level.Iteration)
+        public void setUp(Workload workload) {
+            reset(workload, DirectAcyclicGraph.fromCompact(workload.generatedGraph, false));
+        }
+    }
+
+    /**
+     * Graph with incrementally maintained topological order.
+     */
+    @State(Scope.Thread)
+    public static class IncrementalOrderGraph extends GraphCopy {
+
+        @Setup(Level.Iteration)
+        public void setUp(Workload workload) {
+            reset(workload, DirectAcyclicGraph.fromCompact(workload.generatedGraph, true));
+        }
+    }
+
+    @Benchmark
+    public void kahnPerQuery(KahnGraph state, Blackhole bh) {
+        final int queriesFrom = state.insertBurst();
+        final Workload workload = state.workload;
+
+        for (int i = queriesFrom, last = queriesFrom + QUERIES_PER_BURST; i < last; ++i) {
+            bh.consume(state.graph.shortestPath(workload.labels[0], workload.queryDests[i]));
+        }
+    }
+
+    @Benchmark
+    public void incrementalOrder(IncrementalOrderGraph state, Blackhole bh) {
+        final int queriesFrom = state.insertBurst();
+        final Workload workload = state.workload;
+
+        for (int i = queriesFrom, last = queriesFrom + QUERIES_PER_BURST; i < last; ++i) {
+            bh.consume(state.graph.shortestPathInOrder(workload.labels[0], workload.queryDests[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(IncrementalTopologicalOrderBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,211 @@
+package benchmark.graph;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Indexed d-ary min heap over int vertex ids [0, capacity) with int keys.
+ * <p>
+ * Everything is stored in parallel int arrays preallocated for all vertexes: 'heap' holds vertex ids in heap
+ * order, 'keys' and 'positions' are indexed by vertex id. So add/decreaseKey/poll never allocate and
+ * decrease-key finds a vertex in O(1) without hashing. Arity must be a power of 2, so parent/child
+ * index calculation is done with shifts.
+ */
+final class IndexedDaryMinHeap implements VertexPriorityQueue {
+
+    private static final int NOT_SEEN = -1;
+    private static final int POLLED = -2;
+
+    private final int arityShift;
+
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] positions;
+
+    // vertexes added since the last clear, so clear is proportional to the explored part of a graph
+    private final int[] touched;
+    private int touchedCount;
+
+    private int size;
+
+    IndexedDaryMinHeap(int arity, int capacity) {
+        checkArgument(arity >= 2 && Integer.bitCount(arity) == 1, "arity should be power of 2, found: %s", arity);
+        checkArgument(capacity >= 0, "negative capacity: %s", capacity);
+
+        this.arityShift = Integer.numberOfTrailingZeros(arity);
+        this.heap = new int[capacity];
+        this.keys = new int[capacity];
+        this.positions = new int[capacity];
+        this.touched = new int[capacity];
+
+        Arrays.fill(positions, NOT_SEEN);
+    }
+
+    @Override
+    public int capacity() {
+        return heap.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int vertex) {
+        return positions[vertex] >= 0;
+    }
+
+    /**
+     * Vertex was added to heap since the last clear (it can be already polled).
+     */
+    boolean isSeen(int vertex) {
+        return positions[vertex] != NOT_SEEN;
+    }
+
+    @Override
+    public boolean isPolled(int vertex) {
+        return positions[vertex] == POLLED;
+    }
+
+    /**
+     * Number of vertexes polled since the last clear, i.e. settled vertexes for Dijkstra.
+     */
+    int polledCount() {
+        return touchedCount - size;
+    }
+
+    /**
+     * Minimum key in heap.
+     */
+    int peekKey() {
+        assert size != 0;
+        return keys[heap[0]];
+    }
+
+    @Override
+    public int key(int vertex) {
+        assert positions[vertex] != NOT_SEEN;
+        return keys[vertex];
+    }
+
+    @Override
+    public void add(int vertex, int key) {
+        assert positions[vertex] == NOT_SEEN : "vertex " + vertex + " already added";
+
+        keys[vertex] = key;
+        heap[size] = vertex;
+        positions[vertex] = size;
+        ++size;
+
+        touched[touchedCount] = vertex;
+        ++touchedCount;
+
+        fixUp(size - 1);
+    }
+
+    @Override
+    public void decreaseKey(int vertex, int key) {
+        assert contains(vertex);
+        assert key <= keys[vertex];
+
+        keys[vertex] = key;
+        fixUp(positions[vertex]);
+    }
+
+    @Override
+    public int poll() {
+        assert size != 0;
+
+        final int minVertex = heap[0];
+        positions[minVertex] = POLLED;
+
+        --size;
+
+        if (size != 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            fixDown(0);
+        }
+
+        return minVertex;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < touchedCount; ++i) {
+            positions[touched[i]] = NOT_SEEN;
+        }
+
+        touchedCount = 0;
+        size = 0;
+    }
+
+    private void fixUp(int index) {
+
+        final int vertex = heap[index];
+        final int key = keys[vertex];
+
+        int cur = index;
+
+        while (cur != 0) {
+            int parent = (cur - 1) >>> arityShift;
+            int parentVertex = heap[parent];
+
+            if (keys[parentVertex] <= key) {
+                break;
+            }
+
+            heap[cur] = parentVertex;
+            positions[parentVertex] = cur;
+            cur = parent;
+        }
+
+        heap[cur] = vertex;
+        positions[vertex] = cur;
+    }
+
+    private void fixDown(int index) {
+
+        final int vertex = heap[index];
+        final int key = keys[vertex];
+
+        int cur = index;
+
+        while (true) {
+
+            final int firstChild = (cur << arityShift) + 1;
+
+            if (firstChild >= size) {
+                break;
+            }
+
+            final int lastChild = Math.min(firstChild + (1 << arityShift), size);
+
+            int minChild = firstChild;
+            int minKey = keys[heap[firstChild]];
+
+            for (int child = firstChild + 1; child < lastChild; ++child) {
+                int childKey = keys[heap[child]];
+
+                if (childKey < minKey) {
+                    minChild = child;
+                    minKey = childKey;
+                }
+            }
+
+            if (key <= minKey) {
+                break;
+            }
+
+            heap[cur] = heap[minChild];
+            positions[heap[cur]] = cur;
+            cur = minChild;
+        }
+
+        heap[cur] = vertex;
+        positions[vertex] = cur;
+    }
+
+}
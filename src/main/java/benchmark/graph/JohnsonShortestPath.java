@@ -0,0 +1,174 @@
+package benchmark.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+final class JohnsonShortestPath {
+
+    /**
+     * Sources range processed by a single fork-join task, every leaf task allocates its own heap.
+     */
+    private static final int SOURCES_PER_TASK = 16;
+
+    private JohnsonShortestPath() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    /**
+     * Johnson's all pairs shortest paths: reweight edges with vertex potentials 'h', so that all weights
+     * 'w(u, v) + h(u) - h(v)' become non-negative, then run Dijkstra from every source and restore original
+     * distances 'd(u, v) = d'(u, v) - h(u) + h(v)'.
+     * <p>
+     * Potentials are shortest distances from a virtual source connected to every vertex with 0 weight edges.
+     * For a DAG they are calculated with a single relaxation sweep in topological order instead of Bellman-Ford.
+     * When all weights are non-negative, all potentials are 0 and the original graph is used as is.
+     * Dijkstra runs are independent and split between 'pool' threads.
+     * <p>
+     * Much cheaper than Floyd-Warshall for sparse graphs.
+     * <p>
+     * time: O(V * (V + E) * lgV / P), P - pool parallelism
+     * space: O(V^2)
+     */
+    static DistanceMatrix calculateAllPaths(CompactGraph graph, ForkJoinPool pool) {
+
+        final int vertexesCount = graph.vertexesCount();
+
+        int[] potentials = potentials(graph);
+        CompactGraph reweighted = reweight(graph, potentials);
+
+        int[] allPaths = new int[DistanceMatrix.cellsCount(vertexesCount)];
+
+        if (vertexesCount != 0) {
+            pool.invoke(new SourcesTask(reweighted, potentials, allPaths, 0, vertexesCount));
+        }
+
+        return new DistanceMatrix(graph, allPaths, vertexesCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns null if all potentials are 0, i.e. there are no negative weights.
+     * <p>
+     * time: O(V + E)
+     */
+    private static int[] potentials(CompactGraph graph) {
+
+        boolean hasNegative = false;
+        for (int weight : graph.weights) {
+            if (weight < 0) {
+                hasNegative = true;
+                break;
+            }
+        }
+
+        if (!hasNegative) {
+            return null;
+        }
+
+        int[] potentials = new int[graph.vertexesCount()];
+
+        for (int vertex : graph.topologicalOrder().order) {
+            final int base = potentials[vertex];
+
+            for (int i = graph.offsets[vertex], last = graph.offsets[vertex + 1]; i < last; ++i) {
+                final int otherVertex = graph.targets[i];
+                potentials[otherVertex] = Math.min(potentials[otherVertex], base + graph.weights[i]);
+            }
+        }
+
+        return potentials;
+    }
+
+    private static CompactGraph reweight(CompactGraph graph, int[] potentials) {
+        if (potentials == null) {
+            return graph;
+        }
+
+        int[] weights = new int[graph.edgesCount()];
+
+        for (int vertex = 0; vertex < graph.vertexesCount(); ++vertex) {
+            for (int i = graph.offsets[vertex], last = graph.offsets[vertex + 1]; i < last; ++i) {
+                weights[i] = graph.weights[i] + potentials[vertex] - potentials[graph.targets[i]];
+                assert weights[i] >= 0;
+            }
+        }
+
+        return CompactGraph.of(null, graph.offsets, graph.targets, weights);
+    }
+
+    /**
+     * Full single source Dijkstra from every source in [from, to), results are written into source rows.
+     */
+    private static final class SourcesTask extends RecursiveAction {
+
+        final CompactGraph graph;
+        final int[] potentials;
+        final int[] allPaths;
+        final int from;
+        final int to;
+
+        SourcesTask(CompactGraph graph, int[] potentials, int[] allPaths, int from, int to) {
+            this.graph = graph;
+            this.potentials = potentials;
+            this.allPaths = allPaths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SOURCES_PER_TASK) {
+                IndexedDaryMinHeap heap = new IndexedDaryMinHeap(4, graph.vertexesCount());
+
+                for (int src = from; src < to; ++src) {
+                    singleSource(src, heap);
+                }
+                return;
+            }
+
+            final int middle = from + (to - from) / 2;
+
+            invokeAll(new SourcesTask(graph, potentials, allPaths, from, middle),
+                      new SourcesTask(graph, potentials, allPaths, middle, to));
+        }
+
+        private void singleSource(int src, IndexedDaryMinHeap heap) {
+
+            final int[] offsets = graph.offsets;
+            final int[] targets = graph.targets;
+            final int[] weights = graph.weights;
+
+            final int vertexesCount = graph.vertexesCount();
+            final int row = src * vertexesCount;
+
+            Arrays.fill(allPaths, row, row + vertexesCount, Integer.MAX_VALUE);
+
+            heap.clear();
+            heap.add(src, 0);
+
+            while (!heap.isEmpty()) {
+
+                final int curVertex = heap.poll();
+                final int curWeight = heap.key(curVertex);
+
+                allPaths[row + curVertex] = potentials == null ? curWeight :
+                        curWeight - potentials[src] + potentials[curVertex];
+
+                for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+                    final int otherVertex = targets[i];
+                    final int newWeight = curWeight + weights[i];
+
+                    if (heap.contains(otherVertex)) {
+                        if (newWeight < heap.key(otherVertex)) {
+                            heap.decreaseKey(otherVertex, newWeight);
+                        }
+                    }
+                    else if (!heap.isPolled(otherVertex)) {
+                        heap.add(otherVertex, newWeight);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+package benchmark.graph;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A* search with landmarks and triangle inequality heuristic (ALT, Goldberg and Harrelson).
+ * <p>
+ * Preprocessing picks 'k' landmarks and stores exact distances from every landmark to every vertex and from
+ * every vertex to every landmark. For landmark 'L' and target 't' the triangle inequality gives two lower bounds
+ * of 'd(v, t)':
+ * <pre>
+ *     d(L, t) - d(L, v)   (L is 'behind' v and t)
+ *     d(v, L) - d(t, L)   (L is 'beyond' v and t)
+ * </pre>
+ * The heuristic is the maximum over all landmarks, it's consistent, so A* settles every vertex once and stops
+ * as soon as the target is polled. Unreachable distances also prune the search: if 'L' reaches 'v', but not 't',
+ * or 't' reaches 'L', but 'v' doesn't, then 't' isn't reachable from 'v' and 'v' is never queued.
+ * <p>
+ * The graph is a DAG, so landmark distances are calculated with a single sweep in topological order per
+ * landmark instead of Dijkstra. Landmarks are spread evenly over topological order, the first and the last
+ * vertexes are always landmarks (for k > 1): early vertexes bound queries with the first inequality, late
+ * ones with the second.
+ * <p>
+ * Reference: A. V. Goldberg, C. Harrelson, "Computing the Shortest Path: A* Search Meets Graph Theory".
+ */
+final class LandmarkShortestPath {
+
+    static final int DEFAULT_LANDMARKS_COUNT = 8;
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CompactGraph graph;
+
+    private final int[] landmarks;
+
+    // fromLandmarks[v * k + i] = d(landmarks[i], v), toLandmarks[v * k + i] = d(v, landmarks[i]), UNREACHABLE
+    // if there is no path. All distances of a vertex are stored together, so heuristic reads one cache line.
+    private final int[] fromLandmarks;
+    private final int[] toLandmarks;
+
+    private LandmarkShortestPath(CompactGraph graph, int[] landmarks, int[] fromLandmarks, int[] toLandmarks) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.fromLandmarks = fromLandmarks;
+        this.toLandmarks = toLandmarks;
+    }
+
+    /**
+     * time: O(k * (V + E))
+     * space: O(k * V)
+     */
+    static LandmarkShortestPath build(CompactGraph graph, int landmarksCount) {
+        checkArgument(landmarksCount > 0, "landmarks count should be positive, found: %s", landmarksCount);
+
+        final int vertexesCount = graph.vertexesCount();
+        final int k = Math.min(landmarksCount, Math.max(vertexesCount, 1));
+
+        TopologicalSortingShortestPath.TopologicalOrder topologicalOrder = graph.topologicalOrder();
+
+        int[] landmarkPositions = new int[vertexesCount == 0 ? 0 : k];
+        for (int i = 0; i < landmarkPositions.length; ++i) {
+            landmarkPositions[i] = k == 1 ? 0 : (int) ((long) i * (vertexesCount - 1) / (k - 1));
+        }
+
+        int[] landmarks = new int[landmarkPositions.length];
+        int[] fromLandmarks = new int[vertexesCount * k];
+        int[] toLandmarks = new int[vertexesCount * k];
+
+        int[] distances = new int[vertexesCount];
+
+        for (int i = 0; i < landmarkPositions.length; ++i) {
+            landmarks[i] = topologicalOrder.order[landmarkPositions[i]];
+
+            distancesFrom(graph, topologicalOrder.order, landmarkPositions[i], distances);
+            scatter(distances, fromLandmarks, i, k);
+
+            distancesTo(graph, topologicalOrder.order, landmarkPositions[i], distances);
+            scatter(distances, toLandmarks, i, k);
+        }
+
+        return new LandmarkShortestPath(graph, landmarks, fromLandmarks, toLandmarks);
+    }
+
+    /**
+     * Vertexes before the landmark in topological order can't be reached from it, so the sweep starts
+     * from the landmark position.
+     */
+    private static void distancesFrom(CompactGraph graph, int[] order, int landmarkPosition, int[] distances) {
+        Arrays.fill(distances, UNREACHABLE);
+        distances[order[landmarkPosition]] = 0;
+
+        for (int position = landmarkPosition; position < order.length; ++position) {
+            final int vertex = order[position];
+            final int base = distances[vertex];
+
+            if (base == UNREACHABLE) {
+                continue;
+            }
+
+            for (int i = graph.offsets[vertex], last = graph.offsets[vertex + 1]; i < last; ++i) {
+                final int otherVertex = graph.targets[i];
+                distances[otherVertex] = Math.min(distances[otherVertex], base + graph.weights[i]);
+            }
+        }
+    }
+
+    /**
+     * Reverse sweep over outgoing edges, so no reverse index is needed: when a vertex is processed, distances
+     * of all its successors are already final.
+     */
+    private static void distancesTo(CompactGraph graph, int[] order, int landmarkPosition, int[] distances) {
+        Arrays.fill(distances, UNREACHABLE);
+        distances[order[landmarkPosition]] = 0;
+
+        for (int position = landmarkPosition - 1; position >= 0; --position) {
+            final int vertex = order[position];
+
+            int best = UNREACHABLE;
+
+            for (int i = graph.offsets[vertex], last = graph.offsets[vertex + 1]; i < last; ++i) {
+                final int otherDistance = distances[graph.targets[i]];
+
+                if (otherDistance != UNREACHABLE) {
+                    best = Math.min(best, otherDistance + graph.weights[i]);
+                }
+            }
+
+            distances[vertex] = best;
+        }
+    }
+
+    private static void scatter(int[] distances, int[] landmarkDistances, int landmarkIndex, int k) {
+        for (int vertex = 0; vertex < distances.length; ++vertex) {
+            landmarkDistances[vertex * k + landmarkIndex] = distances[vertex];
+        }
+    }
+
+    int vertexesCount() {
+        return graph.vertexesCount();
+    }
+
+    int landmarksCount() {
+        return landmarks.length;
+    }
+
+    int shortestPath(String src, String dest) {
+        return shortestPath(src, dest, new IndexedDaryMinHeap(2, vertexesCount()), new int[vertexesCount()]);
+    }
+
+    /**
+     * Heap and potentials buffer can be reused between calls (but not shared between threads).
+     * Returns -1 if any of vertexes doesn't exist and Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     */
+    int shortestPath(String src, String dest, IndexedDaryMinHeap heap, int[] potentials) {
+        final int srcId = graph.id(src);
+        final int destId = graph.id(dest);
+
+        if (srcId == CompactGraph.NO_VERTEX || destId == CompactGraph.NO_VERTEX) {
+            return -1;
+        }
+
+        return shortestPath(srcId, destId, heap, potentials);
+    }
+
+    /**
+     * A* over CSR graph, heap keys are 'distance + potential'. Potential of a vertex is calculated once,
+     * when it's queued, and kept in 'potentials', entries are valid only for vertexes seen by the heap since
+     * the last clear, so the buffer is never cleared.
+     * <p>
+     * time: O((S + E_S) * (k + lgS)), S - vertexes explored by A*, E_S - their edges
+     * space: O(V), preallocated heap and potentials
+     */
+    int shortestPath(int src, int dest, IndexedDaryMinHeap heap, int[] potentials) {
+        assert heap.capacity() >= vertexesCount();
+        assert potentials.length >= vertexesCount();
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        if (src == dest) {
+            return 0;
+        }
+
+        final int srcPotential = potential(src, dest);
+
+        if (srcPotential == UNREACHABLE) {
+            return Integer.MAX_VALUE;
+        }
+
+        heap.clear();
+        heap.add(src, srcPotential);
+        potentials[src] = srcPotential;
+
+        while (!heap.isEmpty()) {
+
+            final int curVertex = heap.poll();
+
+            // potential of 'dest' is 0
+            if (curVertex == dest) {
+                return heap.key(curVertex);
+            }
+
+            final int curWeight = heap.key(curVertex) - potentials[curVertex];
+
+            for (int i = offsets[curVertex], last = offsets[curVertex + 1]; i < last; ++i) {
+                final int otherVertex = targets[i];
+
+                if (heap.isSeen(otherVertex)) {
+                    if (heap.contains(otherVertex)) {
+                        final int newKey = curWeight + weights[i] + potentials[otherVertex];
+
+                        if (newKey < heap.key(otherVertex)) {
+                            heap.decreaseKey(otherVertex, newKey);
+                        }
+                    }
+                    continue;
+                }
+
+                final int otherPotential = potential(otherVertex, dest);
+
+                if (otherPotential != UNREACHABLE) {
+                    potentials[otherVertex] = otherPotential;
+                    heap.add(otherVertex, curWeight + weights[i] + otherPotential);
+                }
+            }
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Lower bound of 'd(vertex, dest)', UNREACHABLE if landmarks prove there is no path.
+     */
+    private int potential(int vertex, int dest) {
+        final int k = landmarks.length;
+        final int vertexBase = vertex * k;
+        final int destBase = dest * k;
+
+        int res = 0;
+
+        for (int i = 0; i < k; ++i) {
+            final int fromToVertex = fromLandmarks[vertexBase + i];
+
+            if (fromToVertex != UNREACHABLE) {
+                final int fromToDest = fromLandmarks[destBase + i];
+
+                if (fromToDest == UNREACHABLE) {
+                    return UNREACHABLE;
+                }
+
+                res = Math.max(res, fromToDest - fromToVertex);
+            }
+
+            final int destToLandmark = toLandmarks[destBase + i];
+
+            if (destToLandmark != UNREACHABLE) {
+                final int vertexToLandmark = toLandmarks[vertexBase + i];
+
+                if (vertexToLandmark == UNREACHABLE) {
+                    return UNREACHABLE;
+                }
+
+                res = Math.max(res, vertexToLandmark - destToLandmark);
+            }
+        }
+
+        return res;
+    }
+
+}
@@ -0,0 +1,188 @@
+package benchmark.graph;
+
+import java.util.Arrays;
+
+/**
+ * Base class for monotone bucket based priority queues over int vertex ids (Dial's buckets, radix heap).
+ * <p>
+ * Every bucket is an intrusive doubly linked list stored in 'next'/'prev' int arrays indexed by vertex id,
+ * so moving a vertex between buckets on decrease-key is O(1) and never allocates. 'bucketOf' stores the
+ * bucket of a vertex or one of NOT_SEEN/POLLED markers.
+ * <p>
+ * Queues are monotone: a key added or decreased should never be smaller than the last polled key,
+ * which always holds for Dijkstra with non-negative weights.
+ */
+abstract class LinkedBucketQueue implements VertexPriorityQueue {
+
+    private static final int NOT_SEEN = -1;
+    private static final int POLLED = -2;
+
+    private static final int NIL = -1;
+
+    final int[] keys;
+
+    private final int[] bucketOf;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] heads;
+
+    // vertexes added since the last clear, so clear is proportional to the explored part of a graph
+    private final int[] touched;
+    private int touchedCount;
+
+    private int size;
+
+    LinkedBucketQueue(int capacity, int bucketsCount) {
+        this.keys = new int[capacity];
+        this.bucketOf = new int[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.heads = new int[bucketsCount];
+        this.touched = new int[capacity];
+
+        Arrays.fill(bucketOf, NOT_SEEN);
+        Arrays.fill(heads, NIL);
+    }
+
+    /**
+     * Bucket for a key, called only for keys >= last polled key.
+     */
+    abstract int bucketIndex(int key);
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int vertex) {
+        return bucketOf[vertex] >= 0;
+    }
+
+    @Override
+    public boolean isPolled(int vertex) {
+        return bucketOf[vertex] == POLLED;
+    }
+
+    @Override
+    public int key(int vertex) {
+        assert bucketOf[vertex] != NOT_SEEN;
+        return keys[vertex];
+    }
+
+    @Override
+    public void add(int vertex, int key) {
+        assert bucketOf[vertex] == NOT_SEEN : "vertex " + vertex + " already added";
+
+        keys[vertex] = key;
+        link(vertex, bucketIndex(key));
+        ++size;
+
+        touched[touchedCount] = vertex;
+        ++touchedCount;
+    }
+
+    @Override
+    public void decreaseKey(int vertex, int key) {
+        assert contains(vertex);
+        assert key <= keys[vertex];
+
+        keys[vertex] = key;
+
+        int newBucket = bucketIndex(key);
+
+        if (newBucket != bucketOf[vertex]) {
+            unlink(vertex);
+            link(vertex, newBucket);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < touchedCount; ++i) {
+            int vertex = touched[i];
+
+            if (bucketOf[vertex] >= 0) {
+                heads[bucketOf[vertex]] = NIL;
+            }
+            bucketOf[vertex] = NOT_SEEN;
+        }
+
+        touchedCount = 0;
+        size = 0;
+    }
+
+    int bucketsCount() {
+        return heads.length;
+    }
+
+    int head(int bucket) {
+        return heads[bucket];
+    }
+
+    int next(int vertex) {
+        return next[vertex];
+    }
+
+    static boolean isNil(int vertex) {
+        return vertex == NIL;
+    }
+
+    /**
+     * Remove head vertex of a non-empty bucket and mark it as polled.
+     */
+    int pollHead(int bucket) {
+        final int vertex = heads[bucket];
+        assert vertex != NIL;
+
+        unlink(vertex);
+        bucketOf[vertex] = POLLED;
+        --size;
+
+        return vertex;
+    }
+
+    /**
+     * Move vertex from its current bucket into another one.
+     */
+    void moveToBucket(int vertex, int bucket) {
+        unlink(vertex);
+        link(vertex, bucket);
+    }
+
+    private void link(int vertex, int bucket) {
+        final int head = heads[bucket];
+
+        next[vertex] = head;
+        prev[vertex] = NIL;
+
+        if (head != NIL) {
+            prev[head] = vertex;
+        }
+
+        heads[bucket] = vertex;
+        bucketOf[vertex] = bucket;
+    }
+
+    private void unlink(int vertex) {
+        final int prevVertex = prev[vertex];
+        final int nextVertex = next[vertex];
+
+        if (prevVertex == NIL) {
+            heads[bucketOf[vertex]] = nextVertex;
+        }
+        else {
+            next[prevVertex] = nextVertex;
+        }
+
+        if (nextVertex != NIL) {
+            prev[nextVertex] = prevVertex;
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package benchmark.graph;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.function.LongPredicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded LRU map from packed (src id, dest id) pairs to distances.
+ * <p>
+ * Entries are stored in preallocated parallel arrays linked into a doubly-linked recency list by slot index,
+ * so get/put never allocate and don't box keys. Primitive hash map is used only to find slot by key.
+ * <p>
+ * time: O(1) get/put
+ * space: O(capacity)
+ */
+final class LruDistanceCache {
+
+    static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int NIL = -1;
+
+    private final LongIntHashMap slotByKey;
+
+    private final long[] keys;
+    private final int[] values;
+
+    // recency list, 'head' is the most recently used entry, free slots are chained through 'next'
+    private final int[] prev;
+    private final int[] next;
+
+    private int head = NIL;
+    private int tail = NIL;
+    private int freeHead;
+    private int size;
+
+    LruDistanceCache(int capacity) {
+        checkArgument(capacity > 0, "capacity should be positive: %s", capacity);
+
+        this.slotByKey = new LongIntHashMap(capacity);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+
+        clear();
+    }
+
+    static long key(int src, int dest) {
+        return ((long) src << 32) | (dest & 0xFFFF_FFFFL);
+    }
+
+    static int src(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int dest(long key) {
+        return (int) key;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns cached distance and marks entry as the most recently used or MISSING if there is no such entry.
+     */
+    int get(long key) {
+        final int slot = slotByKey.getIfAbsent(key, NIL);
+
+        if (slot == NIL) {
+            return MISSING;
+        }
+
+        if (slot != head) {
+            unlink(slot);
+            linkFirst(slot);
+        }
+
+        return values[slot];
+    }
+
+    /**
+     * Add or update entry, evicts the least recently used entry if cache is full.
+     */
+    void put(long key, int value) {
+        assert value != MISSING;
+
+        int slot = slotByKey.getIfAbsent(key, NIL);
+
+        if (slot != NIL) {
+            values[slot] = value;
+
+            if (slot != head) {
+                unlink(slot);
+                linkFirst(slot);
+            }
+            return;
+        }
+
+        if (size == keys.length) {
+            remove(tail);
+        }
+
+        slot = freeHead;
+        freeHead = next[slot];
+
+        keys[slot] = key;
+        values[slot] = value;
+        linkFirst(slot);
+        slotByKey.put(key, slot);
+        ++size;
+    }
+
+    /**
+     * Remove all entries with keys matching 'predicate', returns number of removed entries.
+     * <p>
+     * time: O(size)
+     */
+    int removeIf(LongPredicate predicate) {
+        int removedCount = 0;
+
+        for (int slot = head; slot != NIL; ) {
+            final int nextSlot = next[slot];
+
+            if (predicate.test(keys[slot])) {
+                remove(slot);
+                ++removedCount;
+            }
+
+            slot = nextSlot;
+        }
+
+        return removedCount;
+    }
+
+    void clear() {
+        slotByKey.clear();
+
+        for (int slot = 0; slot < next.length; ++slot) {
+            next[slot] = slot + 1 < next.length ? slot + 1 : NIL;
+        }
+
+        head = NIL;
+        tail = NIL;
+        freeHead = 0;
+        size = 0;
+    }
+
+    private void remove(int slot) {
+        slotByKey.remove(keys[slot]);
+        unlink(slot);
+
+        next[slot] = freeHead;
+        freeHead = slot;
+        --size;
+    }
+
+    private void linkFirst(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+
+        if (head != NIL) {
+            prev[head] = slot;
+        }
+        else {
+            tail = slot;
+        }
+
+        head = slot;
+    }
+
+    private void unlink(int slot) {
+        final int prevSlot = prev[slot];
+        final int nextSlot = next[slot];
+
+        if (prevSlot != NIL) {
+            next[prevSlot] = nextSlot;
+        }
+        else {
+            head = nextSlot;
+        }
+
+        if (nextSlot != NIL) {
+            prev[nextSlot] = prevSlot;
+        }
+        else {
+            tail = prevSlot;
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package benchmark.graph;
+
+/**
+ * Monotone radix heap for non-negative int keys.
+ * <p>
+ * Vertex with key 'k' is kept in bucket 'b(k) = bit length of (k XOR last)', where 'last' is the last polled
+ * key, so bucket 0 holds keys equal to 'last' and there are only 33 buckets. When bucket 0 is empty, the
+ * smallest non-empty bucket is scanned for its min key, 'last' is set to it and all bucket vertexes are
+ * redistributed into strictly lower buckets. Every vertex moves down at most 32 times, so Dijkstra runs
+ * in O(V*lgC + E), where C is the max edge weight.
+ */
+final class RadixHeap extends LinkedBucketQueue {
+
+    private static final int BUCKETS_COUNT = Integer.SIZE + 1;
+
+    private int last;
+
+    RadixHeap(int capacity) {
+        super(capacity, BUCKETS_COUNT);
+    }
+
+    @Override
+    int bucketIndex(int key) {
+        assert key >= last : "key " + key + " is smaller than last polled key " + last;
+        return Integer.SIZE - Integer.numberOfLeadingZeros(key ^ last);
+    }
+
+    @Override
+    public int poll() {
+        assert !isEmpty();
+
+        if (isNil(head(0))) {
+            redistribute();
+        }
+
+        return pollHead(0);
+    }
+
+    private void redistribute() {
+
+        int bucket = 1;
+        while (isNil(head(bucket))) {
+            ++bucket;
+        }
+
+        int minKey = Integer.MAX_VALUE;
+        for (int vertex = head(bucket); !isNil(vertex); vertex = next(vertex)) {
+            minKey = Math.min(minKey, keys[vertex]);
+        }
+
+        last = minKey;
+
+        int vertex = head(bucket);
+        while (!isNil(vertex)) {
+            int nextVertex = next(vertex);
+            moveToBucket(vertex, bucketIndex(keys[vertex]));
+            vertex = nextVertex;
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        last = 0;
+    }
+
+}
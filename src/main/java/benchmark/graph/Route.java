@@ -0,0 +1,116 @@
+package benchmark.graph;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shortest path distance together with the vertexes of that path.
+ * <p>
+ * Vertexes are not copied when a route is created, they are resolved lazily by walking predecessors from
+ * 'dest' back to 'src' in the caller provided 'predecessors' buffer. Because this buffer is reused between
+ * queries, vertexes should be requested (or the route discarded) before the next query with the same buffer.
+ * Only entries on the path are read, so the buffer never has to be cleared between queries.
+ */
+final class Route {
+
+    private static final int[] NO_VERTEXES = new int[0];
+
+    private final CompactGraph graph;
+    private final int[] predecessors;
+    private final int src;
+    private final int dest;
+    private final int distance;
+
+    // resolved lazily from 'predecessors'
+    private int[] vertexIds;
+
+    Route(CompactGraph graph, int[] predecessors, int src, int dest, int distance) {
+        this.graph = graph;
+        this.predecessors = predecessors;
+        this.src = src;
+        this.dest = dest;
+        this.distance = distance;
+    }
+
+    /**
+     * Route for a query with unknown 'src' or 'dest' vertex, distance is -1.
+     */
+    static Route unknownVertex() {
+        return new Route(null, null, CompactGraph.NO_VERTEX, CompactGraph.NO_VERTEX, -1);
+    }
+
+    /**
+     * Same values as returned by distance only queries: -1 for unknown vertex and Integer.MAX_VALUE if 'dest'
+     * isn't reachable from 'src'.
+     */
+    int distance() {
+        return distance;
+    }
+
+    boolean exists() {
+        return distance >= 0 && distance != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Vertex ids from 'src' to 'dest' inclusive, empty if there is no route.
+     * <p>
+     * time: O(path length)
+     */
+    int[] vertexIds() {
+        int[] res = vertexIds;
+
+        if (res == null) {
+            res = exists() ? resolve() : NO_VERTEXES;
+            vertexIds = res;
+        }
+
+        return res;
+    }
+
+    /**
+     * Vertex labels from 'src' to 'dest' inclusive, labels are mapped on access.
+     */
+    List<String> vertexes() {
+        final int[] ids = vertexIds();
+
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return graph.label(ids[index]);
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+    private int[] resolve() {
+        int length = 1;
+        for (int vertex = dest; vertex != src; vertex = predecessors[vertex]) {
+            ++length;
+        }
+
+        int[] res = new int[length];
+
+        int index = length - 1;
+        for (int vertex = dest; vertex != src; vertex = predecessors[vertex]) {
+            res[index--] = vertex;
+        }
+        res[0] = src;
+
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return exists() ? distance + " " + vertexes() : String.valueOf(distance);
+    }
+
+}
@@ -0,0 +1,168 @@
+package benchmark.graph;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional bounded cache in front of DirectAcyclicGraph shortest path queries. All modifications should go
+ * through this class, so cached distances can be invalidated.
+ * <p>
+ * Vertex labels are interned into dense int ids and distances are stored in LruDistanceCache keyed by packed
+ * (src id, dest id) pair. Shortest path distance doesn't depend on the algorithm, so a distance calculated by
+ * one algorithm is returned for the same pair by any other one. Results for unknown vertexes (-1) are not
+ * cached, so adding a vertex never invalidates anything.
+ * <p>
+ * New edge 'src -> dest' can only change distance for pairs (a, b) where 'a' reaches 'src' and 'dest' reaches
+ * 'b'. With Invalidation.REACHABILITY we use incrementally maintained topological order as a cheap
+ * conservative reachability test: 'position(a) <= position(src)' and 'position(dest) <= position(b)', so only
+ * entries that can be affected are removed, without any graph search. Invalidation.FULL just clears the cache.
+ * <p>
+ * Not thread safe.
+ */
+final class ShortestPathCache {
+
+    enum Invalidation {
+        FULL,
+        REACHABILITY
+    }
+
+    private final DirectAcyclicGraph graph;
+    private final LruDistanceCache cache;
+    private final Invalidation invalidation;
+
+    private final ObjectIntHashMap<String> ids = new ObjectIntHashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    private long hitsCount;
+    private long missesCount;
+    private long invalidatedCount;
+
+    ShortestPathCache(DirectAcyclicGraph graph, int capacity, Invalidation invalidation) {
+        this.graph = graph;
+        this.cache = new LruDistanceCache(capacity);
+        this.invalidation = invalidation;
+    }
+
+    int shortestPath(String src, String dest) {
+        final long key = key(src, dest);
+        int res = lookup(key);
+
+        if (res == LruDistanceCache.MISSING) {
+            res = graph.shortestPath(src, dest);
+            store(key, res);
+        }
+
+        return res;
+    }
+
+    int shortestPathDijkstra(String src, String dest) {
+        final long key = key(src, dest);
+        int res = lookup(key);
+
+        if (res == LruDistanceCache.MISSING) {
+            res = graph.shortestPathDijkstra(src, dest);
+            store(key, res);
+        }
+
+        return res;
+    }
+
+    int shortestPathAllPairs(String src, String dest) {
+        final long key = key(src, dest);
+        int res = lookup(key);
+
+        if (res == LruDistanceCache.MISSING) {
+            res = graph.shortestPathAllPairs(src, dest);
+            store(key, res);
+        }
+
+        return res;
+    }
+
+    void addVertex(String vertex) {
+        graph.addVertex(vertex);
+    }
+
+    /**
+     * Add edge to the underlying graph and invalidate affected distances, throws IllegalArgumentException
+     * (and leaves cache untouched) if the edge creates a cycle.
+     */
+    void addEdge(String src, String dest, int weight) {
+        graph.addEdge(src, dest, weight);
+
+        if (invalidation == Invalidation.FULL) {
+            invalidatedCount += cache.size();
+            cache.clear();
+            return;
+        }
+
+        final int srcPosition = graph.topologicalPosition(src);
+        final int destPosition = graph.topologicalPosition(dest);
+
+        invalidatedCount += cache.removeIf(key ->
+                graph.topologicalPosition(labels.get(LruDistanceCache.src(key))) <= srcPosition &&
+                        graph.topologicalPosition(labels.get(LruDistanceCache.dest(key))) >= destPosition);
+    }
+
+    DirectAcyclicGraph graph() {
+        return graph;
+    }
+
+    long hitsCount() {
+        return hitsCount;
+    }
+
+    long missesCount() {
+        return missesCount;
+    }
+
+    /**
+     * Number of entries removed by edge insertions (evicted entries are not counted).
+     */
+    long invalidatedCount() {
+        return invalidatedCount;
+    }
+
+    double hitRate() {
+        final long total = hitsCount + missesCount;
+        return total == 0L ? 0.0 : (double) hitsCount / total;
+    }
+
+    private int lookup(long key) {
+        final int res = cache.get(key);
+
+        if (res == LruDistanceCache.MISSING) {
+            ++missesCount;
+        }
+        else {
+            ++hitsCount;
+        }
+
+        return res;
+    }
+
+    private void store(long key, int distance) {
+        if (distance >= 0) {
+            cache.put(key, distance);
+        }
+    }
+
+    private long key(String src, String dest) {
+        return LruDistanceCache.key(intern(src), intern(dest));
+    }
+
+    private int intern(String label) {
+        int id = ids.getIfAbsent(label, CompactGraph.NO_VERTEX);
+
+        if (id == CompactGraph.NO_VERTEX) {
+            id = labels.size();
+            ids.put(label, id);
+            labels.add(label);
+        }
+
+        return id;
+    }
+
+}
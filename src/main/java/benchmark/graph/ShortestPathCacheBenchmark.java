@@ -0,0 +1,271 @@
+package benchmark.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark for ShortestPathCache: Dijkstra queries with Zipf distributed (src, dest) pairs
+ * through the cache vs the same queries without cache. Every 'insertPeriod' queries a new vertex with two edges
+ * is inserted, so cache invalidation cost (full vs reachability based) is included. Hit rate and number of
+ * invalidated entries are printed at the end of every trial.
+ * <p>
+ * Graph, queries and inserts are generated once per trial from a fixed seed, every iteration replays the same
+ * QUERIES_PER_ITERATION queries over a fresh copy of the generated graph (and an empty cache), so cached and
+ * uncached variants do exactly the same work over the same bounded graph. Uncached variant doesn't depend on
+ * cache parameters, so it's measured once per Workload parameters. Single shot score is the time of all
+ * queries of an iteration.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 5, batchSize = ShortestPathCacheBenchmark.QUERIES_PER_ITERATION)
+@Measurement(iterations = 5, batchSize = ShortestPathCacheBenchmark.QUERIES_PER_ITERATION)
+@Fork(1)
+public class ShortestPathCacheBenchmark {
+
+    static final int QUERIES_PER_ITERATION = 8 * 1024;
+
+    private static final int GRAPH_VERTEXES_COUNT = 1000;
+
+    // same density as 5% edge probability of DagGenerator.generate for 1000 vertexes
+    private static final double AVERAGE_DEGREE = 25.0;
+
+    private static final int DISTINCT_PAIRS_COUNT = 2 * 1024;
+
+    private static final long SEED = 42L;
+
+    /**
+     * Generated graph, query sequence and insert script shared by cached and uncached variants.
+     */
+    @State(Scope.Thread)
+    public static class Workload {
+
+        @Param({"0.8", "1.0", "1.2"})
+        public double zipfExponent;
+
+        @Param({"128"})
+        public int insertPeriod;
+
+        private CompactGraph generatedGraph;
+
+        // query sequence, every query is an index into 'srcs' and 'dests'
+        private String[] srcs;
+        private String[] dests;
+        private int[] queries;
+
+        // insert script: new vertex label, 'from -> vertex' and 'vertex -> to' edges with weights
+        private String[] insertedVertexes;
+        private String[] insertFrom;
+        private String[] insertTo;
+        private int[] insertFromWeights;
+        private int[] insertToWeights;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SplittableRandom rand = new SplittableRandom(SEED);
+
+            generatedGraph = DagGenerator.generateCompact(GRAPH_VERTEXES_COUNT, AVERAGE_DEGREE,
+                    DagGenerator.WeightDistribution.TRIANGULAR, SEED);
+
+            // only reachable pairs, map-based algorithms don't handle unreachable 'dest'
+            srcs = new String[DISTINCT_PAIRS_COUNT];
+            dests = new String[DISTINCT_PAIRS_COUNT];
+
+            for (int i = 0; i < DISTINCT_PAIRS_COUNT; ) {
+                String src = generatedGraph.label(rand.nextInt(GRAPH_VERTEXES_COUNT));
+                String dest = generatedGraph.label(rand.nextInt(GRAPH_VERTEXES_COUNT));
+
+                int distance = generatedGraph.shortestPathDijkstra(src, dest);
+
+                if (!src.equals(dest) && distance != Integer.MAX_VALUE) {
+                    srcs[i] = src;
+                    dests[i] = dest;
+                    ++i;
+                }
+            }
+
+            queries = zipfSequence(DISTINCT_PAIRS_COUNT, zipfExponent, QUERIES_PER_ITERATION, rand);
+
+            generateInserts(QUERIES_PER_ITERATION / insertPeriod, rand);
+        }
+
+        /**
+         * New vertex 'V' with edges 'U -> V' and 'V -> W', where 'U' is before 'W' in generated order,
+         * same as in IncrementalTopologicalOrderBenchmark.
+         */
+        private void generateInserts(int insertsCount, SplittableRandom rand) {
+            insertedVertexes = new String[insertsCount];
+            insertFrom = new String[insertsCount];
+            insertTo = new String[insertsCount];
+            insertFromWeights = new int[insertsCount];
+            insertToWeights = new int[insertsCount];
+
+            for (int i = 0; i < insertsCount; ++i) {
+                int from = rand.nextInt(GRAPH_VERTEXES_COUNT - 1);
+                int to = from + 1 + rand.nextInt(GRAPH_VERTEXES_COUNT - from - 1);
+
+                insertedVertexes[i] = "new-" + i;
+                insertFrom[i] = generatedGraph.label(from);
+                insertTo[i] = generatedGraph.label(to);
+                insertFromWeights[i] = 1 + rand.nextInt(100);
+                insertToWeights[i] = 1 + rand.nextInt(100);
+            }
+        }
+
+        /**
+         * Index of the insert to replay after 'queriesCount' queries, -1 if there is no insert at this point.
+         */
+        private int insertAfter(int queriesCount) {
+            return queriesCount % insertPeriod == 0 ? queriesCount / insertPeriod - 1 : -1;
+        }
+    }
+
+    /**
+     * Fresh graph per iteration, modified directly, so it doesn't pay for invalidation. Workload is taken from
+     * the setup, JMH creates a separate instance for a benchmark method argument.
+     */
+    @State(Scope.Thread)
+    public static class UncachedGraph {
+
+        private Workload workload;
+        private DirectAcyclicGraph graph;
+        private int queryIndex;
+
+        @Setup(Level.Iteration)
+        public void setUp(Workload workload) {
+            this.workload = workload;
+            graph = DirectAcyclicGraph.fromCompact(workload.generatedGraph);
+            queryIndex = 0;
+        }
+    }
+
+    /**
+     * Fresh graph and empty cache per iteration, statistics are summed over all iterations of a trial.
+     */
+    @State(Scope.Thread)
+    public static class CachedGraph {
+
+        @Param({"256", "4096"})
+        public int cacheCapacity;
+
+        @Param({"FULL", "REACHABILITY"})
+        public String invalidation;
+
+        private Workload workload;
+        private ShortestPathCache cache;
+        private int queryIndex;
+
+        private long hitsCount;
+        private long missesCount;
+        private long invalidatedCount;
+
+        @Setup(Level.Iteration)
+        public void setUp(Workload workload) {
+            this.workload = workload;
+            cache = new ShortestPathCache(DirectAcyclicGraph.fromCompact(workload.generatedGraph), cacheCapacity,
+                    ShortestPathCache.Invalidation.valueOf(invalidation));
+            queryIndex = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDownIteration() {
+            hitsCount += cache.hitsCount();
+            missesCount += cache.missesCount();
+            invalidatedCount += cache.invalidatedCount();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (hitsCount + missesCount == 0L) {
+                return;
+            }
+
+            System.out.printf("%nhit rate: %.3f, hits: %d, misses: %d, invalidated: %d%n",
+                    (double) hitsCount / (hitsCount + missesCount), hitsCount, missesCount, invalidatedCount);
+        }
+    }
+
+    @Benchmark
+    public int cachedDijkstra(CachedGraph cached) {
+        final Workload workload = cached.workload;
+
+        assert cached.queryIndex < QUERIES_PER_ITERATION : "more queries than pregenerated, check batchSize";
+
+        final int index = workload.queries[cached.queryIndex];
+        final int res = cached.cache.shortestPathDijkstra(workload.srcs[index], workload.dests[index]);
+
+        ++cached.queryIndex;
+
+        final int insert = workload.insertAfter(cached.queryIndex);
+        if (insert >= 0) {
+            cached.cache.addVertex(workload.insertedVertexes[insert]);
+            cached.cache.addEdge(workload.insertFrom[insert], workload.insertedVertexes[insert],
+                    workload.insertFromWeights[insert]);
+            cached.cache.addEdge(workload.insertedVertexes[insert], workload.insertTo[insert],
+                    workload.insertToWeights[insert]);
+        }
+
+        return res;
+    }
+
+    @Benchmark
+    public int uncachedDijkstra(UncachedGraph uncached) {
+        final Workload workload = uncached.workload;
+
+        assert uncached.queryIndex < QUERIES_PER_ITERATION : "more queries than pregenerated, check batchSize";
+
+        final int index = workload.queries[uncached.queryIndex];
+        final int res = uncached.graph.shortestPathDijkstra(workload.srcs[index], workload.dests[index]);
+
+        ++uncached.queryIndex;
+
+        final int insert = workload.insertAfter(uncached.queryIndex);
+        if (insert >= 0) {
+            uncached.graph.addVertex(workload.insertedVertexes[insert]);
+            uncached.graph.addEdge(workload.insertFrom[insert], workload.insertedVertexes[insert],
+                    workload.insertFromWeights[insert]);
+            uncached.graph.addEdge(workload.insertedVertexes[insert], workload.insertTo[insert],
+                    workload.insertToWeights[insert]);
+        }
+
+        return res;
+    }
+
+    /**
+     * Sequence of 'length' ranks in [0, n) where rank 'k' has probability proportional to '1 / (k + 1)^exponent'.
+     * Sampled with inverse CDF: binary search of a uniform value in cumulative weights.
+     */
+    static int[] zipfSequence(int n, double exponent, int length, SplittableRandom rand) {
+        double[] cumulative = new double[n];
+
+        double sum = 0.0;
+        for (int k = 0; k < n; ++k) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+
+        int[] res = new int[length];
+
+        for (int i = 0; i < length; ++i) {
+            int index = Arrays.binarySearch(cumulative, rand.nextDouble() * sum);
+            res[i] = index >= 0 ? index : Math.min(-index - 1, n - 1);
+        }
+
+        return res;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ShortestPathCacheBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
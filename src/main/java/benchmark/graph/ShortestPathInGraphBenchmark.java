@@ -1,71 +1,473 @@
 package benchmark.graph;
 
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
-import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Preconditions.checkState;
+
 /**
  * Micro benchmark for shortest path in DAG using topological sorting and Dijkstra algorithms.
+ * Each algorithm is measured over compiled CSR graph (*Compact benchmarks and all queues) and over map-based
+ * adjacency list (topologicalSorting, dijkstra), *Route benchmarks additionally record predecessors and restore
+ * path vertexes, 'landmarks' measures A* with landmarks heuristic (ALT) for different landmarks counts.
+ * Floyd-Warshall flat vs tiled parallel version is measured separately for different vertexes and threads counts,
+ * from a single benchmark thread ('main' runs them in a separate run).
+ * <p>
+ * Graphs are generated once per trial: GraphPool holds several graphs with different seeds for every
+ * 'vertexesCount' and 'averageDegree' combination, and every graph has a set of queries (src reaches dest).
+ * Every invocation takes the next query from the pool, so the measurement doesn't depend on a single lucky graph
+ * and there is no per-invocation setup. Pool size is limited by the total edges count, so big graphs have
+ * fewer pool entries. Map-based graphs are much more expensive, they have their own smaller sizes.
+ * Allocation rate is reported by GC profiler ('gc.alloc.rate.norm' is bytes per query).
+ * <p>
+ * Pass '-Dgraph.file=path' (see GraphFile and ShortestPathInGraphMain) to measure a fixed graph instead,
+ * 'vertexesCount' and 'averageDegree' are ignored in this case. 'main' collapses them into a single value,
+ * when running with JMH command line pass '-p vertexesCount=0 -p averageDegree=0', otherwise identical trials
+ * are repeated for every combination. Map-based benchmarks are skipped for graph files with more than 100K
+ * vertexes, all pairs benchmarks for more than 10K vertexes.
  */
-@State(Scope.Group)
-@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
 @BenchmarkMode(Mode.AverageTime)
-@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.MILLISECONDS)
-@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.MILLISECONDS)
-@Fork(5)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(2)
 public class ShortestPathInGraphBenchmark {
 
-    private static final int GRAPH_VERTEXES_COUNT = 100;
-
     private static final Random RAND = ThreadLocalRandom.current();
 
+    /**
+     * Optional graph file used instead of generated graphs, null if not set.
+     */
+    private static final String GRAPH_FILE = System.getProperty("graph.file");
+
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Total edges in a pool, pool of 4M vertexes graphs with average degree 8 has only 2 graphs.
+     */
+    private static final long POOL_EDGES_LIMIT = 1L << 26;
+
+    private static final int QUERIES_PER_GRAPH = 16;
+
+    /**
+     * Query destination is the end of a random walk of at most this many edges from the source.
+     */
+    private static final int QUERY_MAX_HOPS = 8;
+
+    private static final long BASE_SEED = 42L;
+
+    /**
+     * Map-based graphs are an order of magnitude bigger than CSR ones, bigger graph files are rejected.
+     */
+    private static final int MAP_GRAPH_MAX_VERTEXES_COUNT = 100_000;
+
+    /**
+     * All pairs benchmarks allocate V^2 distance matrix, bigger graph files are rejected.
+     */
+    private static final int ALL_PAIRS_MAX_VERTEXES_COUNT = 10_000;
+
+    private static final String ALL_PAIRS_BENCHMARKS = "(floydWarshallFlat|floydWarshallTiled)$";
+
     @Benchmark
     @Group("topologicalSorting")
     @GroupThreads(4)
-    public void topologicalSorting(RandomDag state) {
-        state.graph.shortestPath(state.src, state.dest);
+    public int topologicalSorting(MapGraphPool pool, Query query) {
+        query.next(pool.graphs.length, pool.sources, pool.destinations);
+        return pool.graphs[query.graphIndex].shortestPath(query.src, query.dest);
     }
 
     @Benchmark
     @Group("dijkstra")
     @GroupThreads(4)
-    public void dijkstra(RandomDag state) {
-        state.graph.shortestPathDijkstra(state.src, state.dest);
+    public int dijkstra(MapGraphPool pool, Query query) {
+        query.next(pool.graphs.length, pool.sources, pool.destinations);
+        return pool.graphs[query.graphIndex].shortestPathDijkstra(query.src, query.dest);
+    }
+
+    @Benchmark
+    @Group("topologicalSortingCompact")
+    @GroupThreads(4)
+    public int topologicalSortingCompact(GraphPool pool, Query query) {
+        return query.next(pool).shortestPath(query.src, query.dest);
+    }
+
+    @Benchmark
+    @Group("dijkstraCompact")
+    @GroupThreads(4)
+    public int dijkstraCompact(GraphPool pool, Query query) {
+        return query.next(pool).shortestPathDijkstra(query.src, query.dest);
+    }
+
+    @Benchmark
+    @Group("dijkstraIndexedHeap")
+    @GroupThreads(4)
+    public int dijkstraIndexedHeap(GraphPool pool, Query query, Queues queues) {
+        return query.next(pool).shortestPathDijkstra(query.src, query.dest, queues.forwardHeap);
+    }
+
+    @Benchmark
+    @Group("dijkstraDialBuckets")
+    @GroupThreads(4)
+    public int dijkstraDialBuckets(GraphPool pool, Query query, Queues queues) {
+        return query.next(pool).shortestPathDijkstra(query.src, query.dest, queues.dialQueue);
+    }
+
+    @Benchmark
+    @Group("dijkstraRadixHeap")
+    @GroupThreads(4)
+    public int dijkstraRadixHeap(GraphPool pool, Query query, Queues queues) {
+        return query.next(pool).shortestPathDijkstra(query.src, query.dest, queues.radixHeap);
+    }
+
+    @Benchmark
+    @Group("bidirectionalDijkstra")
+    @GroupThreads(4)
+    public int bidirectionalDijkstra(GraphPool pool, Query query, Queues queues) {
+        return query.next(pool).shortestPathBidirectionalDijkstra(query.src, query.dest, queues.forwardHeap,
+                queues.backwardHeap);
     }
 
+    /**
+     * A* with 'landmarksCount' landmarks, landmarks preprocessing is done in setup and isn't measured.
+     */
     @Benchmark
-    @Group("floydWarshall")
+    @Group("landmarks")
     @GroupThreads(4)
-    public void floydWarshall(RandomDag state) {
-        state.graph.shortestPathAllPairs(state.src, state.dest);
+    public int landmarks(GraphPool pool, LandmarksPool landmarksPool, Query query, Queues queues) {
+        query.next(pool);
+        return landmarksPool.landmarks[query.graphIndex].shortestPath(query.src, query.dest, queues.forwardHeap,
+                queues.potentials);
+    }
+
+    /**
+     * Same query as 'topologicalSortingCompact', but also records predecessors and restores path vertexes.
+     */
+    @Benchmark
+    @Group("topologicalSortingRoute")
+    @GroupThreads(4)
+    public int[] topologicalSortingRoute(GraphPool pool, Query query, Queues queues) {
+        return query.next(pool).shortestPathRoute(query.src, query.dest, queues.predecessors).vertexIds();
+    }
+
+    /**
+     * Same query as 'dijkstraIndexedHeap', but also records predecessors and restores path vertexes.
+     */
+    @Benchmark
+    @Group("dijkstraRoute")
+    @GroupThreads(4)
+    public int[] dijkstraRoute(GraphPool pool, Query query, Queues queues) {
+        return query.next(pool).shortestPathRouteDijkstra(query.src, query.dest, queues.forwardHeap,
+                queues.predecessors).vertexIds();
+    }
+
+    /**
+     * Single pair query over flat matrix Floyd-Warshall, baseline for the tiled version below.
+     */
+    @Benchmark
+    @Group("floydWarshallFlat")
+    @GroupThreads(1)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    public int floydWarshallFlat(AllPairsDag state) {
+        return state.compactGraph.shortestPathAllPairs(state.src, state.dest);
+    }
+
+    /**
+     * Whole distance matrix using tiled Floyd-Warshall with 'threadsCount' fork-join threads.
+     */
+    @Benchmark
+    @Group("floydWarshallTiled")
+    @GroupThreads(1)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    public DistanceMatrix floydWarshallTiled(AllPairsDag state, AllPairsPool pool) {
+        return state.compactGraph.allPairsShortestPaths(pool.pool);
+    }
+
+    /**
+     * Seeded CSR graphs with queries, shared by all benchmark threads. Lazy graph structures (reverse index,
+     * topological order) are built in setup, so the first query over a graph isn't more expensive than others.
+     */
+    @State(Scope.Benchmark)
+    public static class GraphPool {
+
+        @Param({"1000", "100000", "1000000", "4000000"})
+        public int vertexesCount;
+
+        @Param({"2.0", "8.0"})
+        public double averageDegree;
+
+        public CompactGraph[] graphs;
+
+        // queries of graph 'i' are at [i * QUERIES_PER_GRAPH, (i + 1) * QUERIES_PER_GRAPH)
+        public String[] sources;
+        public String[] destinations;
+
+        public int maxVertexesCount;
+        public int maxWeight;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if (GRAPH_FILE == null) {
+                final long edgesCount = Math.max(1L, (long) (vertexesCount * averageDegree));
+                final int graphsCount = (int) Math.max(1L, Math.min(POOL_SIZE, POOL_EDGES_LIMIT / edgesCount));
+
+                graphs = new CompactGraph[graphsCount];
+
+                for (int i = 0; i < graphsCount; ++i) {
+                    graphs[i] = DagGenerator.generateCompact(vertexesCount, averageDegree,
+                            DagGenerator.WeightDistribution.UNIFORM, BASE_SEED + i);
+                }
+            }
+            else {
+                graphs = new CompactGraph[]{GraphFile.read(Paths.get(GRAPH_FILE))};
+            }
+
+            sources = new String[graphs.length * QUERIES_PER_GRAPH];
+            destinations = new String[graphs.length * QUERIES_PER_GRAPH];
+
+            for (int i = 0; i < graphs.length; ++i) {
+                CompactGraph graph = graphs[i];
+
+                graph.reverse();
+                generateQueries(graph, new SplittableRandom(BASE_SEED + i), sources, destinations,
+                        i * QUERIES_PER_GRAPH);
+
+                maxVertexesCount = Math.max(maxVertexesCount, graph.vertexesCount());
+                maxWeight = Math.max(maxWeight, graph.maxWeight());
+            }
+        }
+    }
+
+    /**
+     * Same seeded graphs and queries as GraphPool, but converted into map-based graphs, which are an order of
+     * magnitude bigger and slower, so sizes are smaller.
+     */
+    @State(Scope.Benchmark)
+    public static class MapGraphPool {
+
+        @Param({"1000", "10000", "100000"})
+        public int vertexesCount;
+
+        @Param({"2.0", "8.0"})
+        public double averageDegree;
+
+        public DirectAcyclicGraph[] graphs;
+        public String[] sources;
+        public String[] destinations;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            GraphPool compactPool = new GraphPool();
+            compactPool.vertexesCount = vertexesCount;
+            compactPool.averageDegree = averageDegree;
+            compactPool.setUp();
+
+            if (GRAPH_FILE != null) {
+                // fails the trial, so JMH skips map-based benchmarks for big graph files
+                checkState(compactPool.maxVertexesCount <= MAP_GRAPH_MAX_VERTEXES_COUNT,
+                           "Graph file has %s vertexes, map-based benchmarks support at most %s",
+                           compactPool.maxVertexesCount, MAP_GRAPH_MAX_VERTEXES_COUNT);
+            }
+
+            graphs = new DirectAcyclicGraph[compactPool.graphs.length];
+
+            for (int i = 0; i < graphs.length; ++i) {
+                graphs[i] = DirectAcyclicGraph.fromCompact(compactPool.graphs[i]);
+            }
+
+            sources = compactPool.sources;
+            destinations = compactPool.destinations;
+        }
+    }
+
+    /**
+     * Landmarks for every graph of GraphPool.
+     */
+    @State(Scope.Benchmark)
+    public static class LandmarksPool {
+
+        @Param({"1", "4", "16"})
+        public int landmarksCount;
+
+        public LandmarkShortestPath[] landmarks;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphPool pool) {
+            landmarks = new LandmarkShortestPath[pool.graphs.length];
+
+            for (int i = 0; i < landmarks.length; ++i) {
+                landmarks[i] = pool.graphs[i].landmarks(landmarksCount);
+            }
+        }
+    }
+
+    /**
+     * Per thread position in the pool. Every thread starts from a different query, so threads don't walk
+     * through the same graph at the same time.
+     */
+    @State(Scope.Thread)
+    public static class Query {
+
+        private int cursor;
+
+        public int graphIndex;
+        public String src;
+        public String dest;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            cursor = ThreadLocalRandom.current().nextInt(1 << 16);
+        }
+
+        /**
+         * Graphs are rotated first, so consecutive queries go to different graphs (when pool has more than one).
+         */
+        void next(int graphsCount, String[] sources, String[] destinations) {
+            ++cursor;
+
+            graphIndex = cursor % graphsCount;
+            final int queryIndex = graphIndex * QUERIES_PER_GRAPH + (cursor / graphsCount) % QUERIES_PER_GRAPH;
+
+            src = sources[queryIndex];
+            dest = destinations[queryIndex];
+        }
+
+        CompactGraph next(GraphPool pool) {
+            next(pool.graphs.length, pool.sources, pool.destinations);
+            return pool.graphs[graphIndex];
+        }
+    }
+
+    /**
+     * Per thread queues and buffers, big enough for any graph in the pool.
+     */
+    @State(Scope.Thread)
+    public static class Queues {
+
+        public IndexedDaryMinHeap forwardHeap;
+        public IndexedDaryMinHeap backwardHeap;
+        public DialBucketQueue dialQueue;
+        public RadixHeap radixHeap;
+        public int[] predecessors;
+        public int[] potentials;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphPool pool) {
+            final int vertexesCount = pool.maxVertexesCount;
+
+            this.forwardHeap = new IndexedDaryMinHeap(2, vertexesCount);
+            this.backwardHeap = new IndexedDaryMinHeap(2, vertexesCount);
+            this.dialQueue = new DialBucketQueue(vertexesCount, pool.maxWeight);
+            this.radixHeap = new RadixHeap(vertexesCount);
+            this.predecessors = new int[vertexesCount];
+            this.potentials = new int[vertexesCount];
+        }
     }
 
     @State(Scope.Thread)
-    public static class RandomDag {
+    public static class AllPairsDag {
+
+        @Param({"100", "500", "1000", "2000", "4000"})
+        public int vertexesCount;
 
-        public DirectAcyclicGraph graph;
+        public CompactGraph compactGraph;
         public String src;
         public String dest;
 
-        @Setup(Level.Invocation)
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if (GRAPH_FILE == null) {
+                String[] labels = generateVertexesLabels(vertexesCount);
+                this.compactGraph = DagGenerator.generate(labels).compile();
+            }
+            else {
+                this.compactGraph = GraphFile.read(Paths.get(GRAPH_FILE));
+
+                // fails the trial, so JMH skips all pairs benchmarks for big graph files
+                checkState(compactGraph.vertexesCount() <= ALL_PAIRS_MAX_VERTEXES_COUNT,
+                           "Graph file has %s vertexes, all pairs benchmarks support at most %s (V^2 matrix)",
+                           compactGraph.vertexesCount(), ALL_PAIRS_MAX_VERTEXES_COUNT);
+            }
+
+            int[] order = compactGraph.topologicalOrder().order;
+
+            this.src = compactGraph.label(order[0]);
+            this.dest = compactGraph.label(order[order.length - 1]);
+        }
+    }
+
+    /**
+     * Fork-join pool for tiled Floyd-Warshall, separate from AllPairsDag, so single threaded benchmarks aren't
+     * repeated for every threads count.
+     */
+    @State(Scope.Thread)
+    public static class AllPairsPool {
+
+        @Param({"1", "2", "4", "8"})
+        public int threadsCount;
+
+        public ForkJoinPool pool;
+
+        @Setup(Level.Trial)
         public void setUp() {
-            String[] labels = generateVertexesLabels(GRAPH_VERTEXES_COUNT);
-            this.graph = DagGenerator.generate(labels);
-            this.src = labels[0];
-            this.dest = labels[labels.length - 1];
+            pool = new ForkJoinPool(threadsCount);
         }
 
-        @TearDown(Level.Invocation)
+        @TearDown(Level.Trial)
         public void tearDown() {
-            this.graph = null;
-            this.src = null;
-            this.dest = null;
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Source is a random vertex from the first half of topological order, destination is the end of a random
+     * walk from the source, so it's always reachable, but the distance varies from a single edge to the whole
+     * graph. Queries with 'src == dest' (source without outgoing edges) are retried a few times.
+     */
+    static void generateQueries(CompactGraph graph, SplittableRandom rand, String[] sources,
+                                String[] destinations, int from) {
+
+        final int[] order = graph.topologicalOrder().order;
+        final int candidatesCount = Math.max(1, order.length / 2);
+
+        for (int query = from; query < from + QUERIES_PER_GRAPH; ++query) {
+
+            int src = order[0];
+            int dest = src;
+
+            for (int attempt = 0; attempt < 8 && dest == src; ++attempt) {
+                src = order[rand.nextInt(candidatesCount)];
+                dest = src;
+
+                for (int hop = 0; hop < QUERY_MAX_HOPS; ++hop) {
+                    final int first = graph.offsets[dest];
+                    final int last = graph.offsets[dest + 1];
+
+                    if (first == last) {
+                        break;
+                    }
+
+                    dest = graph.targets[first + rand.nextInt(last - first)];
+                }
+            }
+
+            sources[query] = graph.label(src);
+            destinations[query] = graph.label(dest);
         }
     }
 
@@ -102,13 +504,31 @@ public class ShortestPathInGraphBenchmark {
     }
 
     public static void main(String[] args) throws RunnerException {
-        Options opt = new OptionsBuilder()
+        ChainedOptionsBuilder builder = new OptionsBuilder()
                 .include(ShortestPathInGraphBenchmark.class.getSimpleName())
-                .threads(Runtime.getRuntime().availableProcessors())
-                .build();
+                .exclude(ALL_PAIRS_BENCHMARKS)
+                .addProfiler(GCProfiler.class)
+                .threads(Runtime.getRuntime().availableProcessors());
+
+        new Runner(withGraphFileParams(builder).build()).run();
 
-        new Runner(opt).run();
+        // tiled Floyd-Warshall uses 'threadsCount' fork-join threads itself and every benchmark thread has its
+        // own V^2 matrix, so all pairs benchmarks run from a single thread to avoid oversubscription
+        ChainedOptionsBuilder allPairsBuilder = new OptionsBuilder()
+                .include(ShortestPathInGraphBenchmark.class.getSimpleName() + "." + ALL_PAIRS_BENCHMARKS)
+                .addProfiler(GCProfiler.class)
+                .threads(1);
+
+        new Runner(withGraphFileParams(allPairsBuilder).build()).run();
     }
 
+    private static ChainedOptionsBuilder withGraphFileParams(ChainedOptionsBuilder builder) {
+        if (GRAPH_FILE != null) {
+            // sizes are ignored for a graph file, so a single trial per benchmark is enough
+            builder.param("vertexesCount", "0").param("averageDegree", "0");
+        }
+
+        return builder;
+    }
 
 }
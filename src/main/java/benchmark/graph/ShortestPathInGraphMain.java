@@ -3,14 +3,24 @@ package benchmark.graph;
 
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 
 public final class ShortestPathInGraphMain {
 
     private static final Logger LOG = Logger.getLogger(MethodHandles.lookup().lookupClass());
 
-    private ShortestPathInGraphMain() {
+    private static final int LARGE_GRAPH_VERTEXES_COUNT = 1_000_000;
+
+    /**
+     * If 'graphFile' is not null, large graph is loaded from this file or, if there is no such file yet,
+     * generated and saved into it, so the same graph can be reused by ShortestPathInGraphBenchmark.
+     */
+    private ShortestPathInGraphMain(String graphFile) throws IOException {
 
         /*
 
@@ -39,6 +49,55 @@ public final class ShortestPathInGraphMain {
                 throw new IllegalStateException("Paths aren't equals: simple = " + simpleShortestPath +
                         ", dijkstra = " + dijkstraShortestPath + ", allPairs: " + allPairsShortestPath);
             }
+
+            CompactGraph compactGraph = graph.compile();
+
+            int compactSimpleShortestPath = compactGraph.shortestPath(src, dest);
+            int compactDijkstraShortestPath = compactGraph.shortestPathDijkstra(src, dest);
+            int compactAllPairsShortestPath = compactGraph.shortestPathAllPairs(src, dest);
+
+            if (simpleShortestPath != compactSimpleShortestPath || simpleShortestPath != compactDijkstraShortestPath ||
+                    simpleShortestPath != compactAllPairsShortestPath) {
+                throw new IllegalStateException("Compact paths aren't equals: simple = " + compactSimpleShortestPath +
+                        ", dijkstra = " + compactDijkstraShortestPath + ", allPairs: " + compactAllPairsShortestPath);
+            }
+
+            IndexedDaryMinHeap forwardHeap = new IndexedDaryMinHeap(2, compactGraph.vertexesCount());
+            IndexedDaryMinHeap backwardHeap = new IndexedDaryMinHeap(2, compactGraph.vertexesCount());
+
+            compactGraph.shortestPathDijkstra(src, dest, forwardHeap);
+            int dijkstraSettledCount = forwardHeap.polledCount();
+
+            int bidirectionalShortestPath = compactGraph.shortestPathBidirectionalDijkstra(src, dest, forwardHeap,
+                    backwardHeap);
+            int bidirectionalSettledCount = forwardHeap.polledCount() + backwardHeap.polledCount();
+
+            if (simpleShortestPath != bidirectionalShortestPath) {
+                throw new IllegalStateException("Paths aren't equals: simple = " + simpleShortestPath +
+                        ", bidirectional dijkstra = " + bidirectionalShortestPath);
+            }
+
+            LOG.info("Settled vertexes, dijkstra: " + dijkstraSettledCount + ", bidirectional dijkstra: " +
+                    bidirectionalSettledCount);
+        }
+
+        // large graph, only CSR based algorithms
+        CompactGraph largeGraph = largeGraph(graphFile);
+
+        int[] largeOrder = largeGraph.topologicalOrder().order;
+
+        String largeSrc = largeGraph.label(largeOrder[0]);
+        String largeDest = largeGraph.label(largeOrder[largeOrder.length - 1]);
+
+        int largeSimpleShortestPath = largeGraph.shortestPath(largeSrc, largeDest);
+        int largeDijkstraShortestPath = largeGraph.shortestPathDijkstra(largeSrc, largeDest);
+        int largeBidirectionalShortestPath = largeGraph.shortestPathBidirectionalDijkstra(largeSrc, largeDest);
+
+        if (largeSimpleShortestPath != largeDijkstraShortestPath ||
+                largeSimpleShortestPath != largeBidirectionalShortestPath) {
+            throw new IllegalStateException("Large graph paths aren't equals: simple = " + largeSimpleShortestPath +
+                    ", dijkstra = " + largeDijkstraShortestPath + ", bidirectional dijkstra: " +
+                    largeBidirectionalShortestPath);
         }
 
 //        String src = "A";
@@ -63,9 +122,33 @@ public final class ShortestPathInGraphMain {
         LOG.info("ShortestPathInGraphMain done...");
     }
 
+    private static CompactGraph largeGraph(String graphFile) throws IOException {
+        if (graphFile == null) {
+            return DagGenerator.generateCompact(LARGE_GRAPH_VERTEXES_COUNT, 4.0,
+                    DagGenerator.WeightDistribution.TRIANGULAR, 42L);
+        }
+
+        Path path = Paths.get(graphFile);
+
+        if (Files.exists(path)) {
+            long startTime = System.nanoTime();
+            CompactGraph graph = GraphFile.read(path);
+            LOG.info("Graph loaded from '" + path + "' in " + (System.nanoTime() - startTime) / 1_000_000L +
+                    " ms, vertexes: " + graph.vertexesCount() + ", edges: " + graph.edgesCount());
+            return graph;
+        }
+
+        CompactGraph graph = DagGenerator.generateCompact(LARGE_GRAPH_VERTEXES_COUNT, 4.0,
+                DagGenerator.WeightDistribution.TRIANGULAR, 42L);
+        GraphFile.write(graph, path);
+        LOG.info("Graph saved to '" + path + "'");
+
+        return graph;
+    }
+
     public static void main(String[] args) {
         try {
-            new ShortestPathInGraphMain();
+            new ShortestPathInGraphMain(args.length == 0 ? null : args[0]);
         }
         catch (Exception ex) {
             LOG.error(ex.getMessage(), ex);
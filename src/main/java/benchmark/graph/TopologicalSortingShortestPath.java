@@ -1,11 +1,16 @@
 package benchmark.graph;
 
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.google.common.base.Preconditions.checkState;
+
 final class TopologicalSortingShortestPath {
 
     private TopologicalSortingShortestPath() {
@@ -14,6 +19,7 @@ final class TopologicalSortingShortestPath {
 
     /**
      * Shortest path in DAG using topological sorting and left-to-right order of calculation.
+     * Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
      * <p>
      * time: O(V + E)
      * space: O(V + E)
@@ -40,7 +46,6 @@ final class TopologicalSortingShortestPath {
         assert !queue.isEmpty();
 
         Map<String, Integer> shortestPaths = new HashMap<>();
-        boolean startPathFinding = false;
 
         while (true) {
 
@@ -50,21 +55,23 @@ final class TopologicalSortingShortestPath {
 
             // start path tracking
             if (baseVertex.equals(src)) {
-                startPathFinding = true;
                 shortestPaths.put(baseVertex, 0);
             }
             // we are done with our shortest path search
             else if (baseVertex.equals(dest)) {
-                assert startPathFinding;
-                return shortestPaths.get(baseVertex);
+                Integer destPathWeight = shortestPaths.get(baseVertex);
+                return destPathWeight == null ? Integer.MAX_VALUE : destPathWeight;
             }
 
+            // null for vertexes before 'src' and vertexes not reachable from 'src'
+            Integer basePathWeight = shortestPaths.get(baseVertex);
+
             for (EdgeWithWeight edge : adjList.get(baseVertex)) {
 
-                if (startPathFinding) {
+                if (basePathWeight != null) {
 
                     int curPathWeight = shortestPaths.computeIfAbsent(edge.dest, key -> Integer.MAX_VALUE);
-                    int newPathWeight = shortestPaths.get(baseVertex) + edge.weight;
+                    int newPathWeight = basePathWeight + edge.weight;
 
                     if (newPathWeight < curPathWeight) {
                         shortestPaths.put(edge.dest, newPathWeight);
@@ -80,6 +87,357 @@ final class TopologicalSortingShortestPath {
         }
     }
 
+    /**
+     * Shortest path in DAG using already known topological order: single relaxation sweep over
+     * order positions from 'src' to 'dest'. Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     * <p>
+     * time: O(V + E) in the worst case, but only vertexes between 'src' and 'dest' are visited
+     * space: O(V)
+     */
+    static int shortestPath(String src, String dest, Map<String, List<EdgeWithWeight>> adjList,
+                            IncrementalTopologicalOrder topologicalOrder) {
+
+        final int srcPosition = topologicalOrder.position(src);
+        final int destPosition = topologicalOrder.position(dest);
+
+        // check both vertexes present
+        if (srcPosition == CompactGraph.NO_VERTEX || destPosition == CompactGraph.NO_VERTEX) {
+            return -1;
+        }
+
+        if (destPosition < srcPosition) {
+            return Integer.MAX_VALUE;
+        }
+
+        ObjectIntHashMap<String> shortestPaths = new ObjectIntHashMap<>();
+        shortestPaths.put(src, 0);
+
+        for (int pos = srcPosition; pos < destPosition; ++pos) {
+
+            String baseVertex = topologicalOrder.vertexAt(pos);
+            int baseWeight = shortestPaths.getIfAbsent(baseVertex, Integer.MAX_VALUE);
+
+            if (baseWeight == Integer.MAX_VALUE) {
+                continue;
+            }
+
+            for (EdgeWithWeight edge : adjList.get(baseVertex)) {
+                if (topologicalOrder.position(edge.dest) <= destPosition) {
+                    int newPathWeight = baseWeight + edge.weight;
+
+                    if (newPathWeight < shortestPaths.getIfAbsent(edge.dest, Integer.MAX_VALUE)) {
+                        shortestPaths.put(edge.dest, newPathWeight);
+                    }
+                }
+            }
+        }
+
+        return shortestPaths.getIfAbsent(dest, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same algorithm as the first map-based version, but over CSR graph with int vertex ids, int[] in-degrees
+     * and an int[] queue.
+     * Returns Integer.MAX_VALUE if 'dest' isn't reachable from 'src'.
+     * <p>
+     * time: O(V + E)
+     * space: O(V)
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph) {
+
+        assert src != dest;
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        int[] vertexDegree = calculateVertexDegrees(graph);
+
+        int[] queue = new int[graph.vertexesCount()];
+        int head = 0;
+        int tail = 0;
+
+        for (int vertex = 0; vertex < vertexDegree.length; ++vertex) {
+            if (vertexDegree[vertex] == 0) {
+                queue[tail++] = vertex;
+            }
+        }
+
+        assert tail != 0;
+
+        int[] shortestPaths = new int[graph.vertexesCount()];
+        Arrays.fill(shortestPaths, Integer.MAX_VALUE);
+
+        boolean startPathFinding = false;
+
+        while (true) {
+
+            assert head < tail;
+
+            int baseVertex = queue[head++];
+
+            // start path tracking
+            if (baseVertex == src) {
+                startPathFinding = true;
+                shortestPaths[baseVertex] = 0;
+            }
+            // we are done with our shortest path search, if 'dest' comes before 'src' it stays Integer.MAX_VALUE
+            else if (baseVertex == dest) {
+                return shortestPaths[baseVertex];
+            }
+
+            final int baseWeight = shortestPaths[baseVertex];
+
+            for (int i = offsets[baseVertex], last = offsets[baseVertex + 1]; i < last; ++i) {
+
+                final int otherVertex = targets[i];
+
+                if (startPathFinding && baseWeight != Integer.MAX_VALUE) {
+                    int newPathWeight = baseWeight + weights[i];
+
+                    if (newPathWeight < shortestPaths[otherVertex]) {
+                        shortestPaths[otherVertex] = newPathWeight;
+                    }
+                }
+
+                if (--vertexDegree[otherVertex] == 0) {
+                    queue[tail++] = otherVertex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Same as above, but also records predecessor of every improved vertex into 'predecessors', so the path
+     * can be restored by walking back from 'dest' (see Route). Kept as a separate method, so the distance only
+     * version has no extra stores in its inner loop.
+     * <p>
+     * time: O(V + E)
+     * space: O(V), plus caller provided 'predecessors' buffer
+     */
+    static int shortestPath(int src, int dest, CompactGraph graph, int[] predecessors) {
+
+        assert src != dest;
+        assert predecessors.length >= graph.vertexesCount();
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        int[] vertexDegree = calculateVertexDegrees(graph);
+
+        int[] queue = new int[graph.vertexesCount()];
+        int head = 0;
+        int tail = 0;
+
+        for (int vertex = 0; vertex < vertexDegree.length; ++vertex) {
+            if (vertexDegree[vertex] == 0) {
+                queue[tail++] = vertex;
+            }
+        }
+
+        assert tail != 0;
+
+        int[] shortestPaths = new int[graph.vertexesCount()];
+        Arrays.fill(shortestPaths, Integer.MAX_VALUE);
+
+        boolean startPathFinding = false;
+
+        while (true) {
+
+            assert head < tail;
+
+            int baseVertex = queue[head++];
+
+            if (baseVertex == src) {
+                startPathFinding = true;
+                shortestPaths[baseVertex] = 0;
+            }
+            else if (baseVertex == dest) {
+                return shortestPaths[baseVertex];
+            }
+
+            final int baseWeight = shortestPaths[baseVertex];
+
+            for (int i = offsets[baseVertex], last = offsets[baseVertex + 1]; i < last; ++i) {
+
+                final int otherVertex = targets[i];
+
+                if (startPathFinding && baseWeight != Integer.MAX_VALUE) {
+                    int newPathWeight = baseWeight + weights[i];
+
+                    if (newPathWeight < shortestPaths[otherVertex]) {
+                        shortestPaths[otherVertex] = newPathWeight;
+                        predecessors[otherVertex] = baseVertex;
+                    }
+                }
+
+                if (--vertexDegree[otherVertex] == 0) {
+                    queue[tail++] = otherVertex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer a batch of (srcs[i], dests[i]) queries using precalculated topological order.
+     * Queries are grouped by source and for every distinct source we do a single linear relaxation sweep
+     * in topological order from the source up to the farthest destination of its group.
+     * Result for unreachable pair is Integer.MAX_VALUE.
+     * <p>
+     * time: O(Q*lgQ + S*(V + E)), S - number of distinct sources
+     * space: O(V + Q)
+     */
+    static int[] shortestPaths(int[] srcs, int[] dests, CompactGraph graph, TopologicalOrder topologicalOrder) {
+        assert srcs.length == dests.length;
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] weights = graph.weights;
+
+        final int[] order = topologicalOrder.order;
+        final int[] positions = topologicalOrder.positions;
+
+        final int queriesCount = srcs.length;
+
+        // (source, query index) pairs packed into longs, so sorting groups queries by source without boxing
+        long[] sortedQueries = new long[queriesCount];
+        for (int i = 0; i < queriesCount; ++i) {
+            sortedQueries[i] = ((long) srcs[i] << 32) | i;
+        }
+        Arrays.sort(sortedQueries);
+
+        int[] res = new int[queriesCount];
+        int[] shortestPaths = new int[graph.vertexesCount()];
+
+        int groupFrom = 0;
+
+        while (groupFrom < queriesCount) {
+
+            final int src = (int) (sortedQueries[groupFrom] >>> 32);
+
+            // find group boundary and the farthest destination in topological order
+            int groupTo = groupFrom;
+            int lastPosition = positions[src];
+
+            while (groupTo < queriesCount && (int) (sortedQueries[groupTo] >>> 32) == src) {
+                lastPosition = Math.max(lastPosition, positions[dests[(int) sortedQueries[groupTo]]]);
+                ++groupTo;
+            }
+
+            relaxFromSource(src, lastPosition, order, positions, offsets, targets, weights, shortestPaths);
+
+            for (int i = groupFrom; i < groupTo; ++i) {
+                final int queryIndex = (int) sortedQueries[i];
+                final int dest = dests[queryIndex];
+
+                res[queryIndex] = positions[dest] < positions[src] ? Integer.MAX_VALUE : shortestPaths[dest];
+            }
+
+            groupFrom = groupTo;
+        }
+
+        return res;
+    }
+
+    /**
+     * Single left-to-right relaxation sweep over topological order positions [positions[src], lastPosition].
+     * Only values inside this range are valid after the call.
+     */
+    private static void relaxFromSource(int src, int lastPosition, int[] order, int[] positions, int[] offsets,
+                                        int[] targets, int[] weights, int[] shortestPaths) {
+
+        final int firstPosition = positions[src];
+
+        for (int pos = firstPosition; pos <= lastPosition; ++pos) {
+            shortestPaths[order[pos]] = Integer.MAX_VALUE;
+        }
+        shortestPaths[src] = 0;
+
+        for (int pos = firstPosition; pos <= lastPosition; ++pos) {
+
+            final int baseVertex = order[pos];
+            final int baseWeight = shortestPaths[baseVertex];
+
+            if (baseWeight == Integer.MAX_VALUE) {
+                continue;
+            }
+
+            for (int i = offsets[baseVertex], last = offsets[baseVertex + 1]; i < last; ++i) {
+                final int otherVertex = targets[i];
+
+                // vertexes after 'lastPosition' are not needed for this group
+                if (positions[otherVertex] <= lastPosition && baseWeight + weights[i] < shortestPaths[otherVertex]) {
+                    shortestPaths[otherVertex] = baseWeight + weights[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Kahn's topological sorting over CSR graph.
+     * <p>
+     * time: O(V + E)
+     * space: O(V)
+     */
+    static TopologicalOrder topologicalOrder(CompactGraph graph) {
+
+        int[] vertexDegree = calculateVertexDegrees(graph);
+
+        int[] order = new int[graph.vertexesCount()];
+        int head = 0;
+        int tail = 0;
+
+        for (int vertex = 0; vertex < vertexDegree.length; ++vertex) {
+            if (vertexDegree[vertex] == 0) {
+                order[tail++] = vertex;
+            }
+        }
+
+        while (head < tail) {
+            final int baseVertex = order[head++];
+
+            for (int i = graph.offsets[baseVertex], last = graph.offsets[baseVertex + 1]; i < last; ++i) {
+                if (--vertexDegree[graph.targets[i]] == 0) {
+                    order[tail++] = graph.targets[i];
+                }
+            }
+        }
+
+        checkState(tail == order.length, "Graph has a cycle, can't calculate topological order");
+
+        int[] positions = new int[order.length];
+        for (int pos = 0; pos < order.length; ++pos) {
+            positions[order[pos]] = pos;
+        }
+
+        return new TopologicalOrder(order, positions);
+    }
+
+    /**
+     * Vertexes in topological order and position of every vertex in this order.
+     */
+    static final class TopologicalOrder {
+
+        final int[] order;
+        final int[] positions;
+
+        TopologicalOrder(int[] order, int[] positions) {
+            this.order = order;
+            this.positions = positions;
+        }
+    }
+
+    private static int[] calculateVertexDegrees(CompactGraph graph) {
+        int[] vertexDegree = new int[graph.vertexesCount()];
+
+        for (int target : graph.targets) {
+            ++vertexDegree[target];
+        }
+
+        return vertexDegree;
+    }
+
     private static Map<String, Integer> calculateVertexDegrees(Map<String, List<EdgeWithWeight>> adjList) {
         Map<String, Integer> vertexDegree = new HashMap<>();
 
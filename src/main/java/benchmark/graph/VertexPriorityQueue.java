@@ -0,0 +1,41 @@
+package benchmark.graph;
+
+/**
+ * Indexed priority queue over int vertex ids [0, capacity) with int keys, used by Dijkstra.
+ * <p>
+ * Keys of polled vertexes are kept, so after poll 'key(vertex)' returns the final key of a vertex.
+ * Queue can be reused for many queries using {@link #clear()}.
+ */
+public interface VertexPriorityQueue {
+
+    int capacity();
+
+    boolean isEmpty();
+
+    /**
+     * Vertex is currently in queue.
+     */
+    boolean contains(int vertex);
+
+    /**
+     * Vertex was already added and polled from queue since the last clear.
+     */
+    boolean isPolled(int vertex);
+
+    int key(int vertex);
+
+    void add(int vertex, int key);
+
+    void decreaseKey(int vertex, int key);
+
+    /**
+     * Remove vertex with a minimum key and return its id. Use 'key(vertex)' to obtain its key.
+     */
+    int poll();
+
+    /**
+     * Reset queue to the initial state, so it can be reused for the next query.
+     */
+    void clear();
+
+}
@@ -1,5 +1,6 @@
 package benchmark.sort;
 
+import benchmark.sort.intrasort.SortingNetworkSort;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -7,6 +8,7 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -32,6 +34,17 @@ import java.util.stream.IntStream;
  * InsertionVsFastInsertionSortBenchmark.fastInsertionSort  avgt   10   29953.124 ± 582.978  ns/op
  * InsertionVsFastInsertionSortBenchmark.insertionSort      avgt   10   48102.230 ± 313.428  ns/op
  * InsertionVsFastInsertionSortBenchmark.jdkInsertionSort   avgt   10  103639.169 ± 723.746  ns/op
+ * <p>
+ * Intrasort uses insertion sort only for subarrays up to 32 elements, so jdk insertion sort is also compared
+ * with branchless sorting networks (see SortingNetworkSort) over a batch of small subarrays of random lengths.
+ *
+ * Benchmark                                                    (maxLength)  Mode  Cnt    Score  Units
+ * InsertionVsFastInsertionSortBenchmark.jdkInsertionSortSmall            8  avgt    3   56_583  ns/op
+ * InsertionVsFastInsertionSortBenchmark.jdkInsertionSortSmall           16  avgt    3  250_033  ns/op
+ * InsertionVsFastInsertionSortBenchmark.jdkInsertionSortSmall           32  avgt    3  774_533  ns/op
+ * InsertionVsFastInsertionSortBenchmark.sortingNetworkSmall              8  avgt    3   74_098  ns/op
+ * InsertionVsFastInsertionSortBenchmark.sortingNetworkSmall             16  avgt    3  144_173  ns/op
+ * InsertionVsFastInsertionSortBenchmark.sortingNetworkSmall             32  avgt    3  446_557  ns/op
  */
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @BenchmarkMode(Mode.AverageTime)
@@ -43,6 +56,8 @@ public class InsertionVsFastInsertionSortBenchmark {
 
     private static final Random RAND = new Random();
 
+    private static final SortingNetworkSort SORTING_NETWORK = new SortingNetworkSort();
+
     public int[] arr1;
     public int[] arr2;
     public int[] arr3;
@@ -86,6 +101,57 @@ public class InsertionVsFastInsertionSortBenchmark {
         bh.consume(arr3);
     }
 
+    @Benchmark
+    public void jdkInsertionSortSmall(SmallArrays state, Blackhole bh) {
+        for (int i = 0; i < SmallArrays.BATCH_SIZE; ++i) {
+            jdkInsertionSort(state.arr, state.offsets[i], state.offsets[i + 1] - 1);
+        }
+        bh.consume(state.arr);
+    }
+
+    @Benchmark
+    public void sortingNetworkSmall(SmallArrays state, Blackhole bh) {
+        for (int i = 0; i < SmallArrays.BATCH_SIZE; ++i) {
+            SORTING_NETWORK.sort(state.arr, state.offsets[i], state.offsets[i + 1] - 1);
+        }
+        bh.consume(state.arr);
+    }
+
+    /**
+     * Batch of subarrays with random lengths in [2, maxLength], stored one after another in a single array,
+     * so lengths change unpredictably from call to call as in intrasort leaves.
+     */
+    @State(Scope.Thread)
+    public static class SmallArrays {
+
+        static final int BATCH_SIZE = 1024;
+
+        @Param({"8", "16", "32"})
+        public int maxLength;
+
+        private int[] original;
+
+        public int[] offsets;
+        public int[] arr;
+
+        @Setup(Level.Trial)
+        public void setUpTrial() {
+            offsets = new int[BATCH_SIZE + 1];
+
+            for (int i = 0; i < BATCH_SIZE; ++i) {
+                offsets[i + 1] = offsets[i] + 2 + RAND.nextInt(maxLength - 1);
+            }
+
+            original = generateRandomArray(offsets[BATCH_SIZE]);
+            arr = new int[original.length];
+        }
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            System.arraycopy(original, 0, arr, 0, original.length);
+        }
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(InsertionVsFastInsertionSortBenchmark.class.getSimpleName())
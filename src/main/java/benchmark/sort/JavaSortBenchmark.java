@@ -12,7 +12,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Java array sort benchmark.
+ * Java array sort vs LSD radix sort benchmark for int and long arrays.
  */
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @BenchmarkMode(Mode.AverageTime)
@@ -47,11 +47,53 @@ public class JavaSortBenchmark {
         }
     }
 
+    @State(Scope.Thread)
+    public static class LongState {
+
+        @Param({"8000", "16000", "32000", "64000"})
+        private int length;
+
+        private long[] baseArr;
+        private long[] arrToSort;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            baseArr = new long[length];
+            for (int i = 0; i < baseArr.length; ++i) {
+                baseArr[i] = RAND.nextLong();
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void makeArrayCopy() {
+            arrToSort = new long[baseArr.length];
+            System.arraycopy(baseArr, 0, arrToSort, 0, baseArr.length);
+        }
+    }
+
     @Benchmark
     public void arraySort(MyState state) {
         Arrays.sort(state.arrToSort);
     }
 
+    /**
+     * Values are in [0, 10_000) (less than 2^14), so the highest of 3 radix passes is skipped and 2 passes run.
+     */
+    @Benchmark
+    public void radixSort(MyState state) {
+        RadixSort.sort(state.arrToSort);
+    }
+
+    @Benchmark
+    public void arraySortLong(LongState state) {
+        Arrays.sort(state.arrToSort);
+    }
+
+    @Benchmark
+    public void radixSortLong(LongState state) {
+        RadixSort.sort(state.arrToSort);
+    }
+
 
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
@@ -0,0 +1,403 @@
+package benchmark.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * LSD radix sort for int and long arrays with 11 bits digits: 3 passes for int, 6 passes for long.
+ * <p>
+ * Counts of all digits are calculated with a single pass over the input before any scattering (counts don't
+ * depend on elements order). A pass is skipped if all elements have the same digit, e.g. high digits of
+ * small non-negative values, so it costs nothing to sort narrow keys. Keys are compared as unsigned values
+ * with flipped sign bit, so negative values go before positive ones.
+ * <p>
+ * 2048 counters (8 KB) fit into L1 cache, every pass is a sequential read plus 2048 sequential write streams.
+ */
+final class RadixSort {
+
+    private static final int DIGIT_BITS = 11;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    private static final int INT_PASSES = (Integer.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+    private static final int LONG_PASSES = (Long.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+
+    /**
+     * Smaller arrays are always sorted sequentially.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private RadixSort() {
+        throw new AssertionError("Can't instantiate utility only class");
+    }
+
+    /**
+     * time: O(N * passes)
+     * space: O(N), buffer is allocated only if at least one pass isn't skipped
+     */
+    static void sort(int[] arr) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        int[][] counts = new int[INT_PASSES][RADIX];
+        countDigits(arr, 0, arr.length, counts);
+
+        int[] src = arr;
+        int[] dest = null;
+
+        for (int pass = 0; pass < INT_PASSES; ++pass) {
+            final int shift = pass * DIGIT_BITS;
+            int[] count = counts[pass];
+
+            if (count[digit(arr[0], shift)] == arr.length) {
+                continue;
+            }
+
+            if (dest == null) {
+                dest = new int[arr.length];
+            }
+
+            toOffsets(count);
+
+            for (int value : src) {
+                dest[count[digit(value, shift)]++] = value;
+            }
+
+            int[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, arr.length);
+        }
+    }
+
+    /**
+     * time: O(N * passes)
+     * space: O(N), buffer is allocated only if at least one pass isn't skipped
+     */
+    static void sort(long[] arr) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        int[][] counts = new int[LONG_PASSES][RADIX];
+        countDigits(arr, 0, arr.length, counts);
+
+        long[] src = arr;
+        long[] dest = null;
+
+        for (int pass = 0; pass < LONG_PASSES; ++pass) {
+            final int shift = pass * DIGIT_BITS;
+            int[] count = counts[pass];
+
+            if (count[digit(arr[0], shift)] == arr.length) {
+                continue;
+            }
+
+            if (dest == null) {
+                dest = new long[arr.length];
+            }
+
+            toOffsets(count);
+
+            for (long value : src) {
+                dest[count[digit(value, shift)]++] = value;
+            }
+
+            long[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, arr.length);
+        }
+    }
+
+    /**
+     * Parallel LSD radix sort: the array is split into 'pool parallelism' chunks, every chunk has its own
+     * counts, so threads never share counters. For every digit, chunk 'c' writes its elements after the same
+     * digit elements of chunks [0, c), so the sort is still stable and every pass is a single parallel
+     * scatter. Counts are recalculated per chunk after the first scatter, because elements move between chunks.
+     * <p>
+     * time: O(N * passes / P + RADIX * P * passes)
+     * space: O(N + RADIX * P * passes)
+     */
+    static void parallelSort(int[] arr, ForkJoinPool pool) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+        checkArgument(pool != null, "null 'pool' parameter detected");
+
+        if (arr.length < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            sort(arr);
+            return;
+        }
+
+        final Chunks chunks = new Chunks(arr.length, pool.getParallelism());
+        final int[][][] counts = new int[chunks.count][INT_PASSES][RADIX];
+
+        chunks.forEach(pool, chunk -> countDigits(arr, chunks.from(chunk), chunks.to(chunk), counts[chunk]));
+
+        int[] src = arr;
+        int[] dest = null;
+
+        for (int pass = 0; pass < INT_PASSES; ++pass) {
+            final int shift = pass * DIGIT_BITS;
+            final int curPass = pass;
+
+            if (chunks.isConstantDigit(counts, pass, digit(arr[0], shift), arr.length)) {
+                continue;
+            }
+
+            if (dest == null) {
+                dest = new int[arr.length];
+            }
+            else {
+                // not the first scatter, chunks contain different elements now
+                final int[] curSrc = src;
+                chunks.forEach(pool, chunk -> countDigit(curSrc, chunks.from(chunk), chunks.to(chunk), shift,
+                        counts[chunk][curPass]));
+            }
+
+            chunks.toOffsets(counts, pass);
+
+            final int[] curSrc = src;
+            final int[] curDest = dest;
+
+            chunks.forEach(pool, chunk -> {
+                int[] offsets = counts[chunk][curPass];
+
+                for (int i = chunks.from(chunk), last = chunks.to(chunk); i < last; ++i) {
+                    final int value = curSrc[i];
+                    curDest[offsets[digit(value, shift)]++] = value;
+                }
+            });
+
+            int[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, arr.length);
+        }
+    }
+
+    /**
+     * Same as parallel int version.
+     */
+    static void parallelSort(long[] arr, ForkJoinPool pool) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+        checkArgument(pool != null, "null 'pool' parameter detected");
+
+        if (arr.length < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            sort(arr);
+            return;
+        }
+
+        final Chunks chunks = new Chunks(arr.length, pool.getParallelism());
+        final int[][][] counts = new int[chunks.count][LONG_PASSES][RADIX];
+
+        chunks.forEach(pool, chunk -> countDigits(arr, chunks.from(chunk), chunks.to(chunk), counts[chunk]));
+
+        long[] src = arr;
+        long[] dest = null;
+
+        for (int pass = 0; pass < LONG_PASSES; ++pass) {
+            final int shift = pass * DIGIT_BITS;
+            final int curPass = pass;
+
+            if (chunks.isConstantDigit(counts, pass, digit(arr[0], shift), arr.length)) {
+                continue;
+            }
+
+            if (dest == null) {
+                dest = new long[arr.length];
+            }
+            else {
+                final long[] curSrc = src;
+                chunks.forEach(pool, chunk -> countDigit(curSrc, chunks.from(chunk), chunks.to(chunk), shift,
+                        counts[chunk][curPass]));
+            }
+
+            chunks.toOffsets(counts, pass);
+
+            final long[] curSrc = src;
+            final long[] curDest = dest;
+
+            chunks.forEach(pool, chunk -> {
+                int[] offsets = counts[chunk][curPass];
+
+                for (int i = chunks.from(chunk), last = chunks.to(chunk); i < last; ++i) {
+                    final long value = curSrc[i];
+                    curDest[offsets[digit(value, shift)]++] = value;
+                }
+            });
+
+            long[] temp = src;
+            src = dest;
+            dest = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, arr.length);
+        }
+    }
+
+    private static int digit(int value, int shift) {
+        return ((value ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK;
+    }
+
+    private static int digit(long value, int shift) {
+        return (int) ((value ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK;
+    }
+
+    /**
+     * Single pass over [from, to) for all digits.
+     */
+    private static void countDigits(int[] arr, int from, int to, int[][] counts) {
+        assert counts.length == 3 : "int key should have 3 digits";
+
+        int[] count0 = counts[0];
+        int[] count1 = counts[1];
+        int[] count2 = counts[2];
+
+        for (int i = from; i < to; ++i) {
+            final int key = arr[i] ^ Integer.MIN_VALUE;
+
+            ++count0[key & DIGIT_MASK];
+            ++count1[(key >>> DIGIT_BITS) & DIGIT_MASK];
+            ++count2[key >>> (2 * DIGIT_BITS)];
+        }
+    }
+
+    private static void countDigits(long[] arr, int from, int to, int[][] counts) {
+        for (int i = from; i < to; ++i) {
+            final long key = arr[i] ^ Long.MIN_VALUE;
+
+            for (int pass = 0; pass < LONG_PASSES; ++pass) {
+                ++counts[pass][(int) (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK];
+            }
+        }
+    }
+
+    private static void countDigit(int[] arr, int from, int to, int shift, int[] count) {
+        Arrays.fill(count, 0);
+
+        for (int i = from; i < to; ++i) {
+            ++count[digit(arr[i], shift)];
+        }
+    }
+
+    private static void countDigit(long[] arr, int from, int to, int shift, int[] count) {
+        Arrays.fill(count, 0);
+
+        for (int i = from; i < to; ++i) {
+            ++count[digit(arr[i], shift)];
+        }
+    }
+
+    /**
+     * Exclusive prefix sums in place, count of every digit becomes its first index in sorted order.
+     */
+    private static void toOffsets(int[] count) {
+        int offset = 0;
+
+        for (int digit = 0; digit < RADIX; ++digit) {
+            final int digitCount = count[digit];
+            count[digit] = offset;
+            offset += digitCount;
+        }
+    }
+
+    /**
+     * Array split into 'count' equal contiguous chunks.
+     */
+    private static final class Chunks {
+
+        final int length;
+        final int count;
+
+        Chunks(int length, int count) {
+            this.length = length;
+            this.count = count;
+        }
+
+        int from(int chunk) {
+            return (int) ((long) length * chunk / count);
+        }
+
+        int to(int chunk) {
+            return (int) ((long) length * (chunk + 1) / count);
+        }
+
+        boolean isConstantDigit(int[][][] counts, int pass, int digit, int total) {
+            int digitCount = 0;
+
+            for (int chunk = 0; chunk < count; ++chunk) {
+                digitCount += counts[chunk][pass][digit];
+            }
+
+            return digitCount == total;
+        }
+
+        /**
+         * Offsets of chunk 'c' for digit 'd' start after all smaller digits and after digit 'd' of
+         * chunks [0, c).
+         */
+        void toOffsets(int[][][] counts, int pass) {
+            int offset = 0;
+
+            for (int digit = 0; digit < RADIX; ++digit) {
+                for (int chunk = 0; chunk < count; ++chunk) {
+                    int[] chunkCount = counts[chunk][pass];
+
+                    final int digitCount = chunkCount[digit];
+                    chunkCount[digit] = offset;
+                    offset += digitCount;
+                }
+            }
+        }
+
+        void forEach(ForkJoinPool pool, IntConsumer action) {
+            pool.invoke(new ChunksAction(0, count, action));
+        }
+    }
+
+    private static final class ChunksAction extends RecursiveAction {
+
+        final int from;
+        final int to;
+        final IntConsumer action;
+
+        ChunksAction(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+
+            final int middle = from + (to - from) / 2;
+
+            invokeAll(new ChunksAction(from, middle, action),
+                      new ChunksAction(middle, to, action));
+        }
+    }
+
+}
@@ -9,10 +9,11 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Micro benchmark for a shell sort vs jdk-sort algorithm.
+ * Micro benchmark for a shell sort vs jdk-sort vs LSD radix sort algorithms.
  */
 @State(Scope.Group)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -25,10 +26,19 @@ public class ShellSortBenchmark {
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(ShellSortBenchmark.class.getSimpleName())
+                .exclude("(radixSortSingleThread|parallelRadixSort)$")
                 .threads(Runtime.getRuntime().availableProcessors())
                 .build();
 
         new Runner(opt).run();
+
+        // parallel sort uses all cores itself, compared with a single threaded sequential radix sort
+        Options parallelOpt = new OptionsBuilder()
+                .include(ShellSortBenchmark.class.getSimpleName() + ".(radixSortSingleThread|parallelRadixSort)$")
+                .threads(1)
+                .build();
+
+        new Runner(parallelOpt).run();
     }
 
     @Benchmark
@@ -45,22 +55,69 @@ public class ShellSortBenchmark {
         Arrays.sort(state.arr2);
     }
 
+    @Benchmark
+    @Group("radixSort")
+    @GroupThreads(4)
+    public void radixSort(ArrPerThread state) {
+        RadixSort.sort(state.arr3);
+    }
+
+    @Benchmark
+    @Group("radixSortSingleThread")
+    @GroupThreads(1)
+    public void radixSortSingleThread(ArrPerThread state) {
+        RadixSort.sort(state.arr3);
+    }
+
+    /**
+     * Single benchmark thread with a dedicated pool, so the score is parallel speedup and not contention of
+     * several sorts over the same pool. Should be compared with 'radixSortSingleThread', see 'main'.
+     */
+    @Benchmark
+    @Group("parallelRadixSort")
+    @GroupThreads(1)
+    public void parallelRadixSort(ArrPerThread state, SortPool pool) {
+        RadixSort.parallelSort(state.arr4, pool.pool);
+    }
+
+    @State(Scope.Benchmark)
+    public static class SortPool {
+
+        public ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
     @State(Scope.Thread)
     public static class ArrPerThread {
 
         public int[] arr1;
         public int[] arr2;
+        public int[] arr3;
+        public int[] arr4;
 
         @Setup(Level.Invocation)
         public void setUp() {
             arr1 = ArrayUtils.generateRandomArray(1_000_000);
             arr2 = Arrays.copyOf(arr1, arr1.length);
+            arr3 = Arrays.copyOf(arr1, arr1.length);
+            arr4 = Arrays.copyOf(arr1, arr1.length);
         }
 
         @TearDown(Level.Invocation)
         public void tearDown() {
             arr1 = null;
             arr2 = null;
+            arr3 = null;
+            arr4 = null;
         }
     }
 
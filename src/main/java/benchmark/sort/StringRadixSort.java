@@ -0,0 +1,289 @@
+package benchmark.sort;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * In place MSD radix sort (American flag sort, McIlroy, Bostic and McIlroy) for String keys, keys are ordered
+ * the same way as String.compareTo does.
+ * <p>
+ * Every char is a digit, all keys of a range are split into buckets by the char at the current position
+ * (shorter keys go first), buckets are recursively sorted by the next char. So every char of a common prefix
+ * is read once per key, comparison sorts re-scan common prefixes for every comparison.
+ * Chars are 16 bits, but 65536 counters per level are too expensive, so a range is split by the low byte
+ * (257 buckets, bucket 0 for keys that end before the current position) if all its chars at the current
+ * position are below 256, that's true for ASCII/Latin-1 keys. Otherwise the range is split by the high byte
+ * first, then every high byte bucket is split by the low byte.
+ * <p>
+ * Digits of a range are extracted once per level into a buffer and permuted together with keys, so the
+ * permutation doesn't dereference strings. Small ranges are sorted with insertion sort, comparison starts
+ * from the current position, because all preceding chars are equal.
+ * <p>
+ * The sort isn't stable.
+ * <p>
+ * Reference: P. M. McIlroy, K. Bostic, M. D. McIlroy, "Engineering Radix Sort".
+ */
+final class StringRadixSort {
+
+    static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private static final int BUCKETS_COUNT = 257;
+
+    private static final int END_OF_KEY = 0;
+
+    private final String[] keys;
+
+    // values permuted together with keys, null if keys are sorted themselves
+    private final Object[] values;
+
+    private final char[] digits;
+
+    // counts per recursion level, level arrays are reused by sibling buckets
+    private int[][] levelCounts = new int[0][];
+
+    private final int[] next = new int[BUCKETS_COUNT];
+
+    private StringRadixSort(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.digits = new char[keys.length];
+    }
+
+    /**
+     * time: O(D + N * lgR), D - number of distinguishing chars (length of prefixes that make keys unique),
+     * R - 257 (radix)
+     * space: O(N) for digits buffer
+     */
+    static void sort(String[] arr) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        new StringRadixSort(arr, null).sortRange(0, arr.length, 0, 0, false);
+    }
+
+    /**
+     * Sorts 'arr' by String keys, every key is extracted exactly once.
+     * Keys should be non null, elements with equal keys are ordered arbitrarily.
+     * <p>
+     * time: O(D + N * lgR)
+     * space: O(N) for keys and digits buffer
+     */
+    static <T> void sort(T[] arr, Function<? super T, String> keyExtractor) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+        checkArgument(keyExtractor != null, "null 'keyExtractor' parameter detected");
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        String[] keys = new String[arr.length];
+
+        for (int i = 0; i < arr.length; ++i) {
+            keys[i] = keyExtractor.apply(arr[i]);
+            checkArgument(keys[i] != null, "null key extracted for element at index %s", i);
+        }
+
+        new StringRadixSort(keys, arr).sortRange(0, keys.length, 0, 0, false);
+    }
+
+    /**
+     * Sorts [from, to), all keys of the range have equal chars before 'position'. If 'highByteEqual' is true,
+     * chars at 'position' have equal high byte too, so the range can be split by the low byte.
+     */
+    private void sortRange(int from, int to, int position, int level, boolean highByteEqual) {
+
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+
+            int[] count = countsAt(level);
+
+            final boolean byLowByte = lowByteDigits(from, to, position) || highByteEqual;
+
+            if (!byLowByte) {
+                highByteDigits(from, to, position);
+            }
+
+            Arrays.fill(count, 0);
+            for (int i = from; i < to; ++i) {
+                ++count[digits[i]];
+            }
+
+            // all keys have the same digit: no permutation, continue with the same range
+            if (count[digits[from]] == to - from) {
+                if (digits[from] == END_OF_KEY) {
+                    return;
+                }
+
+                if (byLowByte) {
+                    ++position;
+                }
+                highByteEqual = !byLowByte;
+                continue;
+            }
+
+            permute(from, count);
+
+            // count[b] is the end of bucket 'b' now, bucket 0 keys are equal, so it's already sorted
+            int bucketFrom = count[END_OF_KEY];
+
+            for (int bucket = END_OF_KEY + 1; bucket < BUCKETS_COUNT; ++bucket) {
+                final int bucketTo = count[bucket];
+
+                if (bucketTo - bucketFrom > 1) {
+                    if (byLowByte) {
+                        sortRange(bucketFrom, bucketTo, position + 1, level + 1, false);
+                    }
+                    else {
+                        sortRange(bucketFrom, bucketTo, position, level + 1, true);
+                    }
+                }
+
+                bucketFrom = bucketTo;
+            }
+
+            return;
+        }
+
+        insertionSort(from, to, position);
+    }
+
+    private int[] countsAt(int level) {
+        if (level == levelCounts.length) {
+            levelCounts = Arrays.copyOf(levelCounts, Math.max(8, level * 2));
+        }
+
+        if (levelCounts[level] == null) {
+            levelCounts[level] = new int[BUCKETS_COUNT];
+        }
+
+        return levelCounts[level];
+    }
+
+    /**
+     * Fills digits with 'low byte + 1' (0 for keys shorter than position + 1).
+     * Returns false if some char at 'position' doesn't fit into a byte, so low byte digits are useless.
+     */
+    private boolean lowByteDigits(int from, int to, int position) {
+        int highBits = 0;
+
+        for (int i = from; i < to; ++i) {
+            final String key = keys[i];
+
+            if (position < key.length()) {
+                final char ch = key.charAt(position);
+                highBits |= ch;
+                digits[i] = (char) ((ch & 0xFF) + 1);
+            }
+            else {
+                digits[i] = END_OF_KEY;
+            }
+        }
+
+        return (highBits >>> 8) == 0;
+    }
+
+    private void highByteDigits(int from, int to, int position) {
+        for (int i = from; i < to; ++i) {
+            final String key = keys[i];
+            digits[i] = position < key.length() ? (char) ((key.charAt(position) >>> 8) + 1) : END_OF_KEY;
+        }
+    }
+
+    /**
+     * American flag permutation: every misplaced element is moved directly into the next free slot of its
+     * bucket, the displaced element is carried further, until an element for the current slot is found.
+     * After the call count[b] is the end index of bucket 'b'.
+     */
+    private void permute(int from, int[] count) {
+        int offset = from;
+
+        for (int bucket = 0; bucket < BUCKETS_COUNT; ++bucket) {
+            next[bucket] = offset;
+            offset += count[bucket];
+            count[bucket] = offset;
+        }
+
+        for (int bucket = 0; bucket < BUCKETS_COUNT; ++bucket) {
+            final int bucketEnd = count[bucket];
+
+            while (next[bucket] < bucketEnd) {
+                int slot = next[bucket];
+
+                String key = keys[slot];
+                Object value = values == null ? null : values[slot];
+                char digit = digits[slot];
+
+                while (digit != bucket) {
+                    final int dest = next[digit]++;
+
+                    final String destKey = keys[dest];
+                    keys[dest] = key;
+                    key = destKey;
+
+                    if (values != null) {
+                        final Object destValue = values[dest];
+                        values[dest] = value;
+                        value = destValue;
+                    }
+
+                    final char destDigit = digits[dest];
+                    digits[dest] = digit;
+                    digit = destDigit;
+                }
+
+                keys[slot] = key;
+                if (values != null) {
+                    values[slot] = value;
+                }
+                digits[slot] = digit;
+
+                ++next[bucket];
+            }
+        }
+    }
+
+    private void insertionSort(int from, int to, int position) {
+        for (int i = from + 1; i < to; ++i) {
+            final String key = keys[i];
+            final Object value = values == null ? null : values[i];
+
+            int j = i - 1;
+
+            while (j >= from && compareFrom(keys[j], key, position) > 0) {
+                keys[j + 1] = keys[j];
+                if (values != null) {
+                    values[j + 1] = values[j];
+                }
+                --j;
+            }
+
+            keys[j + 1] = key;
+            if (values != null) {
+                values[j + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Same as String.compareTo, but chars before 'position' are known to be equal.
+     */
+    private static int compareFrom(String first, String second, int position) {
+        final int length = Math.min(first.length(), second.length());
+
+        for (int i = position; i < length; ++i) {
+            final char ch1 = first.charAt(i);
+            final char ch2 = second.charAt(i);
+
+            if (ch1 != ch2) {
+                return ch1 - ch2;
+            }
+        }
+
+        return first.length() - second.length();
+    }
+
+}
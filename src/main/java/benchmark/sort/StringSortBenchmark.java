@@ -0,0 +1,158 @@
+package benchmark.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Big arrays of users sorted by username: Arrays.sort with Comparator vs MSD radix (American flag) sort
+ * with key extractor, see StringRadixSort. Plain String arrays are sorted too, to see the cost of
+ * key extraction and of moving users together with keys.
+ * <p>
+ * Usernames are either random 10 lowercase chars (like in ComparatorsBenchmark) or share a common prefix
+ * ('user_' + 8 digits id), common prefix is re-scanned by every comparison, but is read once per key
+ * by radix sort.
+ *
+ * Benchmark                            (length)    (usernames)  Mode  Cnt     Score  Units
+ * StringSortBenchmark.sortComparator    1000000         RANDOM    ss    3  3514.529  ms/op
+ * StringSortBenchmark.sortComparator    1000000  COMMON_PREFIX    ss    3  6066.445  ms/op
+ * StringSortBenchmark.radixSortByKey    1000000         RANDOM    ss    3   684.305  ms/op
+ * StringSortBenchmark.radixSortByKey    1000000  COMMON_PREFIX    ss    3  1227.968  ms/op
+ * StringSortBenchmark.radixSortStrings  1000000         RANDOM    ss    3   435.238  ms/op
+ * StringSortBenchmark.radixSortStrings  1000000  COMMON_PREFIX    ss    3   528.448  ms/op
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class StringSortBenchmark {
+
+    private static final Random RAND = new Random();
+
+    private static final Comparator<WebUser> BY_USERNAME = Comparator.comparing(WebUser::getUsername);
+
+    public enum Usernames {
+        RANDOM,
+        COMMON_PREFIX
+    }
+
+    @Param({"RANDOM", "COMMON_PREFIX"})
+    public Usernames usernames;
+
+    @Param({"1000000", "10000000"})
+    public int length;
+
+    private WebUser[] originalUsers;
+    private String[] originalUsernames;
+
+    public WebUser[] users;
+    public String[] keys;
+
+    /**
+     * Users are generated once per trial and copied before every iteration (only references are copied),
+     * single shot iteration sorts them exactly once.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        originalUsers = new WebUser[length];
+        originalUsernames = new String[length];
+
+        for (int i = 0; i < length; ++i) {
+            String username = generateUsername(usernames);
+            originalUsers[i] = new WebUser(username);
+            originalUsernames[i] = username;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        users = Arrays.copyOf(originalUsers, length);
+        keys = Arrays.copyOf(originalUsernames, length);
+    }
+
+    private static String generateUsername(Usernames usernames) {
+        switch (usernames) {
+            case RANDOM:
+                return generateRandomAsciiString(10);
+            case COMMON_PREFIX:
+                return String.format("user_%08d", RAND.nextInt(100_000_000));
+            default:
+                throw new IllegalArgumentException("Unknown usernames: " + usernames);
+        }
+    }
+
+    private static String generateRandomAsciiString(int length) {
+        StringBuilder buf = new StringBuilder(length);
+
+        for (int i = 0; i < length; ++i) {
+            buf.append((char) ('a' + RAND.nextInt('z' - 'a' + 1)));
+        }
+
+        return buf.toString();
+    }
+
+    @Benchmark
+    public WebUser[] sortComparator() {
+        Arrays.sort(users, BY_USERNAME);
+        return users;
+    }
+
+    @Benchmark
+    public WebUser[] radixSortByKey() {
+        StringRadixSort.sort(users, WebUser::getUsername);
+        return users;
+    }
+
+    @Benchmark
+    public String[] sortStrings() {
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    @Benchmark
+    public String[] radixSortStrings() {
+        StringRadixSort.sort(keys);
+        return keys;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StringSortBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final class WebUser {
+
+        private final String username;
+
+        WebUser(String username) {
+            this.username = username;
+        }
+
+        String getUsername() {
+            return username;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package benchmark.sort.intrasort;
+
+/**
+ * BlockQuicksort partitioning (Edelkamp and Weiss): instead of branching on every comparison, elements are
+ * compared in fixed size blocks from both ends, and offsets of misplaced elements are written into buffers
+ * unconditionally, only the buffer counter depends on comparison result ('count += cond ? 1 : 0' is compiled
+ * into a conditional move). Then misplaced elements from left and right blocks are swapped pairwise in bulk.
+ * The remaining tail (less than 2 blocks) is partitioned with branchless Lomuto scheme.
+ * <p>
+ * Pivot is a median of first, middle and last elements, so presorted input is split evenly.
+ * <p>
+ * Offsets buffers are preallocated, so a partitioner instance (and Intrasort that uses it)
+ * can't be shared between threads.
+ * <p>
+ * Reference: S. Edelkamp, A. Weiss, "BlockQuicksort: How Branch Mispredictions don't affect Quicksort".
+ */
+final class BlockPartitioner implements Partitioner {
+
+    private static final int BLOCK_SIZE = 128;
+
+    private final int[] leftOffsets = new int[BLOCK_SIZE];
+    private final int[] rightOffsets = new int[BLOCK_SIZE];
+
+    /**
+     * time: O(N)
+     * space: O(1), offsets buffers are preallocated
+     */
+    @Override
+    public int partition(int[] arr, int from, int to) {
+        assert arr != null : "null 'arr' detected";
+
+        final int pivotIndex = Intrasort.medianOf3(arr, from, from + (to - from) / 2, to);
+
+        int temp = arr[pivotIndex];
+        arr[pivotIndex] = arr[to];
+        arr[to] = temp;
+
+        final int pivot = arr[to];
+
+        // [from, left) <= pivot, (right, to - 1] >= pivot
+        int left = from;
+        int right = to - 1;
+
+        int leftCount = 0;
+        int leftStart = 0;
+        int rightCount = 0;
+        int rightStart = 0;
+
+        while (right - left + 1 >= 2 * BLOCK_SIZE) {
+
+            if (leftCount == 0) {
+                leftStart = 0;
+                for (int i = 0; i < BLOCK_SIZE; ++i) {
+                    leftOffsets[leftCount] = i;
+                    leftCount += arr[left + i] >= pivot ? 1 : 0;
+                }
+            }
+
+            if (rightCount == 0) {
+                rightStart = 0;
+                for (int i = 0; i < BLOCK_SIZE; ++i) {
+                    rightOffsets[rightCount] = i;
+                    rightCount += arr[right - i] <= pivot ? 1 : 0;
+                }
+            }
+
+            final int swapsCount = Math.min(leftCount, rightCount);
+
+            for (int i = 0; i < swapsCount; ++i) {
+                final int leftIndex = left + leftOffsets[leftStart + i];
+                final int rightIndex = right - rightOffsets[rightStart + i];
+
+                temp = arr[leftIndex];
+                arr[leftIndex] = arr[rightIndex];
+                arr[rightIndex] = temp;
+            }
+
+            leftCount -= swapsCount;
+            rightCount -= swapsCount;
+            leftStart += swapsCount;
+            rightStart += swapsCount;
+
+            if (leftCount == 0) {
+                left += BLOCK_SIZE;
+            }
+
+            if (rightCount == 0) {
+                right -= BLOCK_SIZE;
+            }
+        }
+
+        // Block with pending offsets is still inside [left, right], so pending offsets can be dropped.
+        // Branchless Lomuto for the tail: every element is swapped with the boundary, boundary moves only
+        // for elements smaller than pivot.
+        int boundary = left;
+
+        for (int i = left; i <= right; ++i) {
+            final int value = arr[i];
+            arr[i] = arr[boundary];
+            arr[boundary] = value;
+            boundary += value < pivot ? 1 : 0;
+        }
+
+        arr[to] = arr[boundary];
+        arr[boundary] = pivot;
+
+        return boundary;
+    }
+}
@@ -2,6 +2,8 @@ package benchmark.sort.intrasort;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -9,15 +11,37 @@ final class Intrasort {
 
     private static final int INSERTION_SORT_THRESHOLD = 32;
 
+    /**
+     * Subarrays with at least this many elements use ninther instead of median of 3 as pivot.
+     */
+    private static final int NINTHER_THRESHOLD = 128;
+
+    private static final int STACK_ENTRY_SIZE = 3;
+
+    /**
+     * Subarrays with at most this many elements are sorted sequentially by parallel intrasort,
+     * same as the minimal granularity of Arrays.parallelSort.
+     */
+    static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
     private final InsertionSort insertionSortStrategy;
 
+    // used by classic 'intrasort' only, other variants use Hoare partition
+    private final Partitioner partitioner;
+
     public Intrasort(InsertionSort insertionSortStrategy) {
+        this(insertionSortStrategy, new LomutoPartitioner());
+    }
+
+    public Intrasort(InsertionSort insertionSortStrategy, Partitioner partitioner) {
         this.insertionSortStrategy = insertionSortStrategy;
+        this.partitioner = partitioner;
     }
 
     /**
      * Classic intrasort (similar to STL implementation) that uses quicksort and switch
      * to heapsort as soon as the stack size is greater or equal to log N.
+     * Partitioning scheme is pluggable, Lomuto with the last element as pivot by default.
      */
     public void intrasort(int[] arr) {
         checkArgument(arr != null, "null 'arr' parameter detected");
@@ -53,7 +77,7 @@ final class Intrasort {
                 continue;
             }
 
-            final int pivotIndex = partition(arr, from, to);
+            final int pivotIndex = partitioner.partition(arr, from, to);
 
             int leftSize = pivotIndex - from;
 
@@ -72,24 +96,215 @@ final class Intrasort {
         }
     }
 
+    /**
+     * Intrasort without allocations in the main loop: explicit stack is a preallocated int[], pivot is
+     * a median of 3 (or Tukey's ninther for big subarrays) and partitioning is Hoare-style, so sorted,
+     * reversed and many duplicates inputs are split evenly.
+     * <p>
+     * The bigger partition goes to the stack and the smaller one is processed right away, so stack holds
+     * at most log N subarrays. Because of this stack size can't be used as recursion depth anymore, so every
+     * subarray keeps its own depth and heapsort is used as soon as depth reaches 2 * log N (as in STL).
+     * <p>
+     * time: O(N*lgN) in the worst case
+     * space: O(lgN)
+     */
+    public void intrasortHoare(int[] arr) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        sortRange(arr, 0, arr.length - 1, 0, 2 * log2(arr.length));
+    }
+
+    /**
+     * Parallel intrasort with default threshold, see below.
+     */
+    public void parallelIntrasort(int[] arr, ForkJoinPool pool) {
+        parallelIntrasort(arr, pool, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Parallel version of 'intrasortHoare': subarrays bigger than 'parallelThreshold' are partitioned and
+     * both partitions are sorted by separate fork-join tasks, smaller ones are sorted sequentially inside
+     * a single task with the same insertion sort strategy and depth limit. Depth is counted from the
+     * whole array, so a subarray that reaches 2 * log N depth (in parallel or sequential part) is heapsorted.
+     * <p>
+     * time: O(N*lgN / P) for not degenerate partitions, O(N*lgN) in the worst case, P - pool parallelism
+     * space: O(lgN) per task
+     */
+    public void parallelIntrasort(int[] arr, ForkJoinPool pool, int parallelThreshold) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+        checkArgument(pool != null, "null 'pool' parameter detected");
+        checkArgument(parallelThreshold > INSERTION_SORT_THRESHOLD,
+                      "'parallelThreshold' should be greater than %s, found: %s", INSERTION_SORT_THRESHOLD,
+                      parallelThreshold);
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        pool.invoke(new SortTask(arr, 0, arr.length - 1, 0, 2 * log2(arr.length), parallelThreshold));
+    }
+
+    /**
+     * Sequential part of 'intrasortHoare' for [from, to] subarray, which is already at 'depth'.
+     */
+    private void sortRange(int[] arr, int from, int to, int depth, final int maxDepth) {
+
+        // every subarray is stored as 3 ints: from, to, depth
+        int[] stack = new int[STACK_ENTRY_SIZE * log2(to - from + 1)];
+        int stackSize = 0;
+
+        while (true) {
+
+            final int elemsCount = to - from + 1;
+
+            if (elemsCount > INSERTION_SORT_THRESHOLD && depth < maxDepth) {
+
+                final int last = hoarePartition(arr, from, to);
+                ++depth;
+
+                if (last - from < to - last) {
+                    stack[stackSize++] = last + 1;
+                    stack[stackSize++] = to;
+                    stack[stackSize++] = depth;
+                    to = last;
+                }
+                else {
+                    stack[stackSize++] = from;
+                    stack[stackSize++] = last;
+                    stack[stackSize++] = depth;
+                    from = last + 1;
+                }
+
+                continue;
+            }
+
+            if (elemsCount <= INSERTION_SORT_THRESHOLD) {
+                insertionSortStrategy.sort(arr, from, to);
+            }
+            else {
+                HeapSort.sort(arr, from, to);
+            }
+
+            if (stackSize == 0) {
+                break;
+            }
+
+            depth = stack[--stackSize];
+            to = stack[--stackSize];
+            from = stack[--stackSize];
+        }
+    }
+
+    private final class SortTask extends RecursiveAction {
+
+        final int[] arr;
+        final int from;
+        final int to;
+        final int depth;
+        final int maxDepth;
+        final int parallelThreshold;
+
+        SortTask(int[] arr, int from, int to, int depth, int maxDepth, int parallelThreshold) {
+            this.arr = arr;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from + 1 <= parallelThreshold) {
+                sortRange(arr, from, to, depth, maxDepth);
+                return;
+            }
+
+            if (depth >= maxDepth) {
+                HeapSort.sort(arr, from, to);
+                return;
+            }
+
+            final int last = hoarePartition(arr, from, to);
+
+            invokeAll(new SortTask(arr, from, last, depth + 1, maxDepth, parallelThreshold),
+                      new SortTask(arr, last + 1, to, depth + 1, maxDepth, parallelThreshold));
+        }
+    }
+
     private static int log2(int n) {
         return (int) (Math.log(n) / Math.log(2)) + 1;
     }
 
-    private static int partition(int[] arr, int from, int to) {
-        int pivot = arr[to];
+    /**
+     * Hoare partition around the median value moved to the middle of subarray, the pivot element bounds
+     * both scans on the first pass and swapped elements bound them later, so there are no index checks
+     * inside scans. Returns 'last', such that all elements in [from, last] <= all elements in [last + 1, to],
+     * both parts are non-empty.
+     */
+    private static int hoarePartition(int[] arr, int from, int to) {
+        final int middle = from + (to - from) / 2;
+
+        swap(arr, pivotIndex(arr, from, to), middle);
+
+        final int pivot = arr[middle];
+
+        int i = from - 1;
+        int j = to + 1;
 
-        int boundary = from - 1;
+        while (true) {
+            do {
+                ++i;
+            }
+            while (arr[i] < pivot);
+
+            do {
+                --j;
+            }
+            while (arr[j] > pivot);
 
-        for (int i = from; i < to; ++i) {
-            if (arr[i] <= pivot) {
-                swap(arr, boundary + 1, i);
-                ++boundary;
+            if (i >= j) {
+                return j;
             }
+
+            swap(arr, i, j);
         }
+    }
 
-        swap(arr, boundary + 1, to);
-        return boundary + 1;
+    /**
+     * Median of first, middle and last elements, for big subarrays median of 3 such medians (Tukey's ninther).
+     */
+    private static int pivotIndex(int[] arr, int from, int to) {
+        final int middle = from + (to - from) / 2;
+
+        if (to - from + 1 < NINTHER_THRESHOLD) {
+            return medianOf3(arr, from, middle, to);
+        }
+
+        final int step = (to - from + 1) / 8;
+
+        return medianOf3(arr,
+                         medianOf3(arr, from, from + step, from + 2 * step),
+                         medianOf3(arr, middle - step, middle, middle + step),
+                         medianOf3(arr, to - 2 * step, to - step, to));
+    }
+
+    static int medianOf3(int[] arr, int first, int second, int third) {
+        if (arr[first] < arr[second]) {
+            if (arr[second] < arr[third]) {
+                return second;
+            }
+            return arr[first] < arr[third] ? third : first;
+        }
+
+        if (arr[first] < arr[third]) {
+            return first;
+        }
+        return arr[second] < arr[third] ? third : second;
     }
 
     private static void swap(int[] arr, int from, int to) {
@@ -7,6 +7,7 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -20,14 +21,55 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import scala.util.Random;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 /**
- * Micro benchmark for intrasort algorithm with different insertion sort techniques for small subarrays.
+ * Micro benchmark for intrasort algorithm with different insertion sort techniques for small subarrays
+ * and different partitioning schemes (Lomuto, BlockQuicksort and Hoare, see Intrasort) and pattern-defeating
+ * quicksort for different input distributions.
+ * Parallel intrasort is compared with Arrays.sort and Arrays.parallelSort over 1M-100M elements arrays.
  *
  * Benchmark                  Mode  Cnt      Score      Error  Units
  * IntrasortBenchmark.fast    avgt   10  78_958.890 ± 1561.604  ns/op
  * IntrasortBenchmark.simple  avgt   10  67_209.767 ± 1154.711  ns/op
+ *
+ * Benchmark                  (distribution)  Mode  Cnt          Score  Units
+ * IntrasortBenchmark.simple          RANDOM  avgt    3    234_617.324  ns/op
+ * IntrasortBenchmark.simple          SORTED  avgt    3  1_272_693.740  ns/op
+ * IntrasortBenchmark.simple        REVERSED  avgt    3  4_063_358.393  ns/op
+ * IntrasortBenchmark.simple      DUPLICATES  avgt    3    423_867.423  ns/op
+ * IntrasortBenchmark.hoare           RANDOM  avgt    3    226_437.334  ns/op
+ * IntrasortBenchmark.hoare           SORTED  avgt    3     22_311.722  ns/op
+ * IntrasortBenchmark.hoare         REVERSED  avgt    3     26_333.811  ns/op
+ * IntrasortBenchmark.hoare       DUPLICATES  avgt    3    143_379.802  ns/op
+ *
+ * Benchmark                  (distribution)  Mode  Cnt          Score  Units
+ * IntrasortBenchmark.simple          RANDOM  avgt    5    203_369.053  ns/op
+ * IntrasortBenchmark.simple          SORTED  avgt    5  1_180_166.075  ns/op
+ * IntrasortBenchmark.block           RANDOM  avgt    5    121_267.174  ns/op
+ * IntrasortBenchmark.block           SORTED  avgt    5     55_467.665  ns/op
+ *
+ * Benchmark                  (distribution)  Mode  Cnt          Score  Units
+ * IntrasortBenchmark.simple          RANDOM  avgt    5    236_824.291  ns/op
+ * IntrasortBenchmark.simple          SORTED  avgt    5  1_406_398.976  ns/op
+ * IntrasortBenchmark.network         RANDOM  avgt    5    181_695.260  ns/op
+ * IntrasortBenchmark.network         SORTED  avgt    5  1_311_159.222  ns/op
+ *
+ * Benchmark                  (distribution)  Mode  Cnt        Score  Units
+ * IntrasortBenchmark.hoare           RANDOM  avgt    3  229_012.633  ns/op
+ * IntrasortBenchmark.hoare           SORTED  avgt    3   19_503.577  ns/op
+ * IntrasortBenchmark.hoare         REVERSED  avgt    3   19_726.484  ns/op
+ * IntrasortBenchmark.hoare         SAWTOOTH  avgt    3  126_028.233  ns/op
+ * IntrasortBenchmark.hoare       DUPLICATES  avgt    3  135_450.226  ns/op
+ * IntrasortBenchmark.hoare       ORGAN_PIPE  avgt    3  119_315.278  ns/op
+ * IntrasortBenchmark.pdqsort         RANDOM  avgt    3  229_930.126  ns/op
+ * IntrasortBenchmark.pdqsort         SORTED  avgt    3    5_027.446  ns/op
+ * IntrasortBenchmark.pdqsort       REVERSED  avgt    3   14_366.111  ns/op
+ * IntrasortBenchmark.pdqsort       SAWTOOTH  avgt    3  205_813.911  ns/op
+ * IntrasortBenchmark.pdqsort     DUPLICATES  avgt    3  106_844.199  ns/op
+ * IntrasortBenchmark.pdqsort     ORGAN_PIPE  avgt    3  125_764.677  ns/op
  */
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @BenchmarkMode(Mode.AverageTime)
@@ -41,14 +83,79 @@ public class IntrasortBenchmark {
 
     private static final Intrasort SIMPLE = new Intrasort(new SimpleInsertionSort());
     private static final Intrasort FAST = new Intrasort(new FastInsertionSort());
+    private static final Intrasort NETWORK = new Intrasort(new SortingNetworkSort());
+
+    public enum Distribution {
+        RANDOM,
+        SORTED,
+        REVERSED,
+        // 8 ascending runs
+        SAWTOOTH,
+        // only 16 distinct values
+        DUPLICATES,
+        // ascending, then descending
+        ORGAN_PIPE
+    }
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "SAWTOOTH", "DUPLICATES", "ORGAN_PIPE"})
+    public Distribution distribution;
+
+    // BlockPartitioner has preallocated buffers, so every benchmark thread has its own instance
+    private final Intrasort block = new Intrasort(new SimpleInsertionSort(), new BlockPartitioner());
 
     public int[] arr1;
     public int[] arr2;
+    public int[] arr3;
+    public int[] arr4;
+    public int[] arr5;
+    public int[] arr6;
 
     @Setup(Level.Invocation)
     public void setUp() {
-        arr1 = createRandomArray(1000 + RAND.nextInt(1000));
+        arr1 = createArray(1000 + RAND.nextInt(1000), distribution);
         arr2 = Arrays.copyOf(arr1, arr1.length);
+        arr3 = Arrays.copyOf(arr1, arr1.length);
+        arr4 = Arrays.copyOf(arr1, arr1.length);
+        arr5 = Arrays.copyOf(arr1, arr1.length);
+        arr6 = Arrays.copyOf(arr1, arr1.length);
+    }
+
+    private static int[] createArray(int length, Distribution distribution) {
+        switch (distribution) {
+            case RANDOM:
+                return createRandomArray(length);
+            case SORTED: {
+                int[] arr = createRandomArray(length);
+                Arrays.sort(arr);
+                return arr;
+            }
+            case REVERSED: {
+                int[] arr = createRandomArray(length);
+                Arrays.sort(arr);
+                for (int i = 0, j = arr.length - 1; i < j; ++i, --j) {
+                    int temp = arr[i];
+                    arr[i] = arr[j];
+                    arr[j] = temp;
+                }
+                return arr;
+            }
+            case SAWTOOTH: {
+                final int runLength = length / 8 + 1;
+                return IntStream.range(0, length).
+                        map(index -> index % runLength).
+                        toArray();
+            }
+            case DUPLICATES:
+                return Arrays.stream(new int[length]).
+                        map(notUsed -> RAND.nextInt(16)).
+                        toArray();
+            case ORGAN_PIPE:
+                return IntStream.range(0, length).
+                        map(index -> index < length / 2 ? index : length - index).
+                        toArray();
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
     }
 
     private static int[] createRandomArray(int length) {
@@ -61,6 +168,10 @@ public class IntrasortBenchmark {
     public void tearDown() {
         arr1 = null;
         arr2 = null;
+        arr3 = null;
+        arr4 = null;
+        arr5 = null;
+        arr6 = null;
     }
 
     @Benchmark
@@ -75,6 +186,104 @@ public class IntrasortBenchmark {
         bh.consume(arr2);
     }
 
+    /**
+     * int[] stack, median of 3/ninther pivot and Hoare partition, see Intrasort.intrasortHoare.
+     */
+    @Benchmark
+    public void hoare(Blackhole bh) {
+        SIMPLE.intrasortHoare(arr3);
+        bh.consume(arr3);
+    }
+
+    /**
+     * Same as 'simple', but with branchless BlockQuicksort partitioning instead of Lomuto, see BlockPartitioner.
+     */
+    @Benchmark
+    public void block(Blackhole bh) {
+        block.intrasort(arr4);
+        bh.consume(arr4);
+    }
+
+    /**
+     * Same as 'simple', but subarrays up to 32 elements are sorted with sorting networks, see SortingNetworkSort.
+     */
+    @Benchmark
+    public void network(Blackhole bh) {
+        NETWORK.intrasort(arr5);
+        bh.consume(arr5);
+    }
+
+    /**
+     * Pattern-defeating quicksort, see PatternDefeatingQuicksort.
+     */
+    @Benchmark
+    public void pdqsort(Blackhole bh) {
+        PatternDefeatingQuicksort.sort(arr6);
+        bh.consume(arr6);
+    }
+
+    /**
+     * Parallel intrasort vs JDK sorts over big arrays, all of them use common fork-join pool.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    public int[] parallelIntrasort(LargeArray state) {
+        SIMPLE.parallelIntrasort(state.arr, ForkJoinPool.commonPool());
+        return state.arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    public int[] arraysSort(LargeArray state) {
+        Arrays.sort(state.arr);
+        return state.arr;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    public int[] arraysParallelSort(LargeArray state) {
+        Arrays.parallelSort(state.arr);
+        return state.arr;
+    }
+
+    /**
+     * Array is generated once per trial (with benchmark 'distribution') and copied before every
+     * iteration, single shot iteration sorts it exactly once.
+     */
+    @State(Scope.Thread)
+    public static class LargeArray {
+
+        @Param({"1000000", "10000000", "100000000"})
+        public int length;
+
+        private int[] original;
+
+        public int[] arr;
+
+        @Setup(Level.Trial)
+        public void setUpTrial(IntrasortBenchmark benchmark) {
+            original = createArray(length, benchmark.distribution);
+            arr = new int[length];
+        }
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            System.arraycopy(original, 0, arr, 0, length);
+        }
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(IntrasortBenchmark.class.getSimpleName())
@@ -0,0 +1,29 @@
+package benchmark.sort.intrasort;
+
+
+import com.max.algs.util.ArrayUtils;
+
+/**
+ * Classic Lomuto partition with the last element as pivot, branches on every comparison.
+ */
+final class LomutoPartitioner implements Partitioner {
+
+    @Override
+    public int partition(int[] arr, int from, int to) {
+        assert arr != null : "null 'arr' detected";
+
+        int pivot = arr[to];
+
+        int boundary = from - 1;
+
+        for (int i = from; i < to; ++i) {
+            if (arr[i] <= pivot) {
+                ArrayUtils.swap(arr, boundary + 1, i);
+                ++boundary;
+            }
+        }
+
+        ArrayUtils.swap(arr, boundary + 1, to);
+        return boundary + 1;
+    }
+}
@@ -0,0 +1,11 @@
+package benchmark.sort.intrasort;
+
+public interface Partitioner {
+
+    /**
+     * Partition [from, to] around a pivot element and return its final index 'p', so that
+     * all elements in [from, p - 1] <= arr[p] <= all elements in [p + 1, to].
+     */
+    int partition(int[] arr, int from, int to);
+
+}
@@ -0,0 +1,330 @@
+package benchmark.sort.intrasort;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Pattern-defeating quicksort (pdqsort, Orson Peters) for int arrays.
+ * <p>
+ * Compared to Intrasort it adapts to input patterns instead of just bounding the worst case:
+ * <ul>
+ *     <li>if a partition didn't move any element and both parts are sorted by partial insertion sort with
+ *     a few moves, the range is done, so sorted, reversed (after the first partition) and almost sorted
+ *     inputs take linear time</li>
+ *     <li>if the pivot is equal to the element just before the range (the pivot of the parent partition),
+ *     there are no smaller elements in the range, so all elements equal to the pivot are moved to the left
+ *     and skipped: every distinct value is partitioned out at most once, so inputs with many duplicates
+ *     take O(N * K), K - number of distinct values</li>
+ *     <li>highly unbalanced partition (smaller part is less than 1/8 of the range) swaps a few elements of
+ *     both parts with fixed positions to break the pattern, after lgN bad partitions the range is sorted
+ *     with heapsort, so the worst case is O(N*lgN)</li>
+ * </ul>
+ * Pivot is median of 3 or Tukey's ninther for ranges bigger than 128 elements.
+ * <p>
+ * Reference: O. R. L. Peters, "Pattern-defeating Quicksort".
+ */
+final class PatternDefeatingQuicksort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    private static final int NINTHER_THRESHOLD = 128;
+
+    // partial insertion sort gives up after this number of element moves
+    private static final int PARTIAL_INSERTION_SORT_LIMIT = 8;
+
+    private final int[] arr;
+
+    // set by 'partitionRight': no elements were swapped during the last partition
+    private boolean alreadyPartitioned;
+
+    private PatternDefeatingQuicksort(int[] arr) {
+        this.arr = arr;
+    }
+
+    /**
+     * time: O(N*lgN) in the worst case, O(N) for sorted/reversed input, O(N * K) for K distinct values
+     * space: O(lgN)
+     */
+    static void sort(int[] arr) {
+        checkArgument(arr != null, "null 'arr' parameter detected");
+
+        if (arr.length < 2) {
+            return;
+        }
+
+        new PatternDefeatingQuicksort(arr).sortRange(0, arr.length, log2(arr.length), true);
+    }
+
+    /**
+     * Sorts [from, to). If 'leftmost' is false, there is an element before 'from' that is not greater than any
+     * element of the range, it's used as a sentinel by insertion sort and to detect equal elements.
+     * The left part is sorted recursively, the right part in the same loop.
+     */
+    private void sortRange(int from, int to, int badPartitionsAllowed, boolean leftmost) {
+        while (true) {
+            final int size = to - from;
+
+            if (size < INSERTION_SORT_THRESHOLD) {
+                if (leftmost) {
+                    insertionSort(from, to);
+                }
+                else {
+                    unguardedInsertionSort(from, to);
+                }
+                return;
+            }
+
+            choosePivot(from, to);
+
+            // arr[from - 1] is the pivot of some parent partition, all elements of the range are >= it
+            if (!leftmost && arr[from - 1] >= arr[from]) {
+                from = partitionLeft(from, to) + 1;
+                continue;
+            }
+
+            final int pivotIndex = partitionRight(from, to);
+            final boolean noSwaps = alreadyPartitioned;
+
+            final int leftSize = pivotIndex - from;
+            final int rightSize = to - (pivotIndex + 1);
+
+            if (leftSize < size / 8 || rightSize < size / 8) {
+                --badPartitionsAllowed;
+
+                if (badPartitionsAllowed == 0) {
+                    HeapSort.sort(arr, from, to - 1);
+                    return;
+                }
+
+                breakPatterns(from, pivotIndex, leftSize);
+                breakPatterns(pivotIndex + 1, to, rightSize);
+            }
+            else if (noSwaps && partialInsertionSort(from, pivotIndex) &&
+                    partialInsertionSort(pivotIndex + 1, to)) {
+                return;
+            }
+
+            sortRange(from, pivotIndex, badPartitionsAllowed, leftmost);
+
+            from = pivotIndex + 1;
+            leftmost = false;
+        }
+    }
+
+    /**
+     * Moves median of 3 (or ninther) to 'from'.
+     */
+    private void choosePivot(int from, int to) {
+        final int size = to - from;
+        final int half = size / 2;
+
+        if (size > NINTHER_THRESHOLD) {
+            sort3(from, from + half, to - 1);
+            sort3(from + 1, from + half - 1, to - 2);
+            sort3(from + 2, from + half + 1, to - 3);
+            sort3(from + half - 1, from + half, from + half + 1);
+            swap(from, from + half);
+        }
+        else {
+            sort3(from + half, from, to - 1);
+        }
+    }
+
+    /**
+     * Swaps a few elements at 1/4 of the part with its ends, so the next pivot is taken from different values.
+     */
+    private void breakPatterns(int from, int to, int size) {
+        if (size < INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+
+        final int quarter = size / 4;
+
+        swap(from, from + quarter);
+        swap(to - 1, to - quarter);
+
+        if (size > NINTHER_THRESHOLD) {
+            swap(from + 1, from + quarter + 1);
+            swap(from + 2, from + quarter + 2);
+            swap(to - 2, to - quarter - 1);
+            swap(to - 3, to - quarter - 2);
+        }
+    }
+
+    /**
+     * Partitions [from, to) around arr[from]: elements < pivot go left, elements >= pivot go right.
+     * Returns the final pivot position and sets 'alreadyPartitioned' if no elements were swapped.
+     * Median of 3 guarantees an element >= pivot in the range, so the first scan needs no bound check.
+     */
+    private int partitionRight(int from, int to) {
+        final int pivot = arr[from];
+
+        int first = from;
+        int last = to;
+
+        do {
+            ++first;
+        } while (arr[first] < pivot);
+
+        if (first - 1 == from) {
+            do {
+                --last;
+            } while (first < last && arr[last] >= pivot);
+        }
+        else {
+            // arr[from] is a sentinel now
+            do {
+                --last;
+            } while (arr[last] >= pivot);
+        }
+
+        alreadyPartitioned = first >= last;
+
+        while (first < last) {
+            swap(first, last);
+
+            do {
+                ++first;
+            } while (arr[first] < pivot);
+
+            do {
+                --last;
+            } while (arr[last] >= pivot);
+        }
+
+        final int pivotIndex = first - 1;
+        arr[from] = arr[pivotIndex];
+        arr[pivotIndex] = pivot;
+
+        return pivotIndex;
+    }
+
+    /**
+     * Partitions [from, to) around arr[from]: elements <= pivot go left, elements > pivot go right.
+     * Used when the range has no elements smaller than pivot, so the left part contains only pivot
+     * copies and is already sorted.
+     */
+    private int partitionLeft(int from, int to) {
+        final int pivot = arr[from];
+
+        int first = from;
+        int last = to;
+
+        do {
+            --last;
+        } while (pivot < arr[last]);
+
+        if (last + 1 == to) {
+            do {
+                ++first;
+            } while (first < last && pivot >= arr[first]);
+        }
+        else {
+            do {
+                ++first;
+            } while (pivot >= arr[first]);
+        }
+
+        while (first < last) {
+            swap(first, last);
+
+            do {
+                --last;
+            } while (pivot < arr[last]);
+
+            do {
+                ++first;
+            } while (pivot >= arr[first]);
+        }
+
+        arr[from] = arr[last];
+        arr[last] = pivot;
+
+        return last;
+    }
+
+    /**
+     * Insertion sort that gives up as soon as more than PARTIAL_INSERTION_SORT_LIMIT moves were done.
+     * Returns true if [from, to) is sorted.
+     */
+    private boolean partialInsertionSort(int from, int to) {
+        int movesCount = 0;
+
+        for (int i = from + 1; i < to; ++i) {
+            final int value = arr[i];
+
+            if (value < arr[i - 1]) {
+                int j = i;
+
+                do {
+                    arr[j] = arr[j - 1];
+                    --j;
+                } while (j != from && value < arr[j - 1]);
+
+                arr[j] = value;
+                movesCount += i - j;
+
+                if (movesCount > PARTIAL_INSERTION_SORT_LIMIT) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i < to; ++i) {
+            final int value = arr[i];
+
+            int j = i - 1;
+
+            while (j >= from && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                --j;
+            }
+
+            arr[j + 1] = value;
+        }
+    }
+
+    /**
+     * arr[from - 1] is not greater than any element of the range, so the bound check isn't needed.
+     */
+    private void unguardedInsertionSort(int from, int to) {
+        for (int i = from + 1; i < to; ++i) {
+            final int value = arr[i];
+
+            int j = i - 1;
+
+            while (arr[j] > value) {
+                arr[j + 1] = arr[j];
+                --j;
+            }
+
+            arr[j + 1] = value;
+        }
+    }
+
+    private void sort3(int first, int second, int third) {
+        sort2(first, second);
+        sort2(second, third);
+        sort2(first, second);
+    }
+
+    private void sort2(int first, int second) {
+        if (arr[second] < arr[first]) {
+            swap(first, second);
+        }
+    }
+
+    private void swap(int first, int second) {
+        final int temp = arr[first];
+        arr[first] = arr[second];
+        arr[second] = temp;
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+}
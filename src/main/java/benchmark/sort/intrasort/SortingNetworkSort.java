@@ -0,0 +1,147 @@
+package benchmark.sort.intrasort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small subarrays sort with sorting networks: a fixed sequence of compare-exchange operations for every size,
+ * so there are no data dependent branches, compare-exchange is a pair of Math.min/Math.max that are compiled
+ * into conditional moves. Insertion sort mispredicts a branch almost on every inserted element for random input.
+ * <p>
+ * Sizes 2-8 use the best known networks (optimal number of comparators). Sizes 9-16 sort the first 8 elements
+ * and the rest with these networks, then merge both halves with Batcher's odd-even merge. Sizes 17-32 do
+ * the same with 16 elements networks. Merge networks are built for power of 2 halves, the second half is
+ * treated as padded with +infinity values, so comparators that touch indexes beyond the size are dropped.
+ * <p>
+ * Subarrays bigger than 32 elements are sorted with insertion sort.
+ * <p>
+ * Networks are immutable, so an instance can be shared between threads (parallel intrasort).
+ */
+public final class SortingNetworkSort implements InsertionSort {
+
+    static final int MAX_NETWORK_SIZE = 32;
+
+    private static final int MAX_OPTIMAL_NETWORK_SIZE = 8;
+
+    // comparators of size 'n' network as pairs of indexes: [i0, j0, i1, j1, ...], i < j
+    private static final int[][] OPTIMAL_NETWORKS = {
+            {},
+            {},
+            {0, 1},
+            {0, 2, 0, 1, 1, 2},
+            {0, 2, 1, 3, 0, 1, 2, 3, 1, 2},
+            {0, 3, 1, 4, 0, 2, 1, 3, 0, 1, 2, 4, 1, 2, 3, 4, 2, 3},
+            {0, 5, 1, 3, 2, 4, 1, 2, 3, 4, 0, 3, 2, 5, 0, 1, 2, 3, 4, 5, 1, 2, 3, 4},
+            {0, 6, 2, 3, 4, 5, 0, 2, 1, 4, 3, 6, 0, 1, 2, 5, 3, 4, 1, 2, 4, 6, 2, 3, 4, 5, 1, 2, 3, 4, 5, 6},
+            {0, 2, 1, 3, 4, 6, 5, 7, 0, 4, 1, 5, 2, 6, 3, 7, 0, 1, 2, 3, 4, 5, 6, 7, 2, 4, 3, 5, 1, 4, 3, 6,
+                    1, 2, 3, 4, 5, 6}
+    };
+
+    private static final int[][] NETWORKS = buildNetworks();
+
+    private static int[][] buildNetworks() {
+        int[][] networks = new int[MAX_NETWORK_SIZE + 1][];
+
+        for (int size = 0; size <= MAX_NETWORK_SIZE; ++size) {
+            if (size <= MAX_OPTIMAL_NETWORK_SIZE) {
+                networks[size] = OPTIMAL_NETWORKS[size];
+                continue;
+            }
+
+            final int half = size <= 2 * MAX_OPTIMAL_NETWORK_SIZE ?
+                    MAX_OPTIMAL_NETWORK_SIZE :
+                    2 * MAX_OPTIMAL_NETWORK_SIZE;
+
+            List<Integer> comparators = new ArrayList<>();
+            addShifted(networks[half], 0, comparators);
+            addShifted(networks[size - half], half, comparators);
+            addOddEvenMerge(0, 2 * half, 1, size, comparators);
+
+            networks[size] = comparators.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        return networks;
+    }
+
+    private static void addShifted(int[] network, int shift, List<Integer> comparators) {
+        for (int index : network) {
+            comparators.add(index + shift);
+        }
+    }
+
+    /**
+     * Batcher's odd-even merge of [from, from + length / 2) and [from + length / 2, from + length) with
+     * 'step' distance between compared elements, comparators with indexes >= 'size' are dropped.
+     */
+    private static void addOddEvenMerge(int from, int length, int step, int size, List<Integer> comparators) {
+        final int doubleStep = step * 2;
+
+        if (doubleStep < length) {
+            addOddEvenMerge(from, length, doubleStep, size, comparators);
+            addOddEvenMerge(from + step, length, doubleStep, size, comparators);
+
+            for (int i = from + step; i + step < from + length; i += doubleStep) {
+                addComparator(i, i + step, size, comparators);
+            }
+        }
+        else {
+            addComparator(from, from + step, size, comparators);
+        }
+    }
+
+    private static void addComparator(int first, int second, int size, List<Integer> comparators) {
+        if (second < size) {
+            comparators.add(first);
+            comparators.add(second);
+        }
+    }
+
+    /**
+     * time: O(C), C - comparators count (at most 191 for 32 elements)
+     * space: O(1)
+     */
+    @Override
+    public void sort(int[] arr, int from, int to) {
+        assert arr != null : "null 'arr' detected";
+
+        final int length = to - from + 1;
+
+        if (length < 2) {
+            return;
+        }
+
+        if (length > MAX_NETWORK_SIZE) {
+            insertionSort(arr, from, to);
+            return;
+        }
+
+        final int[] network = NETWORKS[length];
+
+        for (int i = 0; i < network.length; i += 2) {
+            final int first = from + network[i];
+            final int second = from + network[i + 1];
+
+            final int firstValue = arr[first];
+            final int secondValue = arr[second];
+
+            arr[first] = Math.min(firstValue, secondValue);
+            arr[second] = Math.max(firstValue, secondValue);
+        }
+    }
+
+    private static void insertionSort(int[] arr, int from, int to) {
+        for (int i = from + 1; i <= to; ++i) {
+
+            final int temp = arr[i];
+
+            int j = i - 1;
+
+            while (j >= from && arr[j] > temp) {
+                arr[j + 1] = arr[j];
+                --j;
+            }
+
+            arr[j + 1] = temp;
+        }
+    }
+}